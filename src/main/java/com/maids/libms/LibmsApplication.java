@@ -4,10 +4,15 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableCaching
+// Caching advice wraps the transaction, so cache hits take no connection and cache writes
+// happen after commit.
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 @EnableAspectJAutoProxy
+@EnableScheduling
 public class LibmsApplication {
 
 	public static void main(String[] args) {
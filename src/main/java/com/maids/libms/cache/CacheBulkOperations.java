@@ -0,0 +1,162 @@
+package com.maids.libms.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-key reads and writes against the near cache, one Redis round trip per call:
+ * {@code MGET} for reads and a pipeline of {@code SET ... PX} for writes. Keys, value codec and
+ * TTL come from each cache's {@link RedisCacheConfiguration}, so entries are interchangeable
+ * with the ones written by {@code @Cacheable}. While the Redis circuit is open only the local
+ * tier is used.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheBulkOperations {
+    private final CacheManager cacheManager;
+    private final RedisCacheManager redisCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    /**
+     * Returns the cached values for whichever {@code keys} are present, local tier first.
+     */
+    public Map<Object, Object> getAll(String cacheName, Collection<?> keys) {
+        Map<Object, Object> found = new HashMap<>();
+        TwoLevelCache nearCache = nearCache(cacheName);
+        List<Object> remoteKeys = new ArrayList<>();
+        for (Object key : keys) {
+            Cache.ValueWrapper local = nearCache != null ? nearCache.getLocal(key) : null;
+            if (local != null && local.get() != null) {
+                found.put(key, local.get());
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return found;
+        }
+
+        RedisCacheConfiguration config = configuration(cacheName);
+        byte[][] rawKeys = remoteKeys.stream()
+                .map(key -> toBytes(config.getKeySerializationPair().write(config.getKeyPrefixFor(cacheName) + key)))
+                .toArray(byte[][]::new);
+        List<byte[]> rawValues = circuitBreaker.execute(() -> redisTemplate.execute(
+                (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(rawKeys)), () -> null);
+        if (rawValues == null) {
+            return found;
+        }
+        for (int i = 0; i < remoteKeys.size(); i++) {
+            byte[] raw = rawValues.get(i);
+            if (raw == null || raw.length == 0) {
+                continue;
+            }
+            Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(raw));
+            if (value != null) {
+                found.put(remoteKeys.get(i), value);
+                if (nearCache != null) {
+                    nearCache.putLocal(remoteKeys.get(i), value);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Writes all {@code entries} to Redis in one pipeline and to the local tier. Meant for values
+     * just read from the database, so no invalidation is published.
+     */
+    public void putAll(String cacheName, Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = configuration(cacheName);
+        String prefix = config.getKeyPrefixFor(cacheName);
+        circuitBreaker.execute(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            entries.forEach((key, value) -> {
+                byte[] rawKey = toBytes(config.getKeySerializationPair().write(prefix + key));
+                byte[] rawValue = toBytes(config.getValueSerializationPair().write(value));
+                Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+                connection.stringCommands().set(rawKey, rawValue, Expiration.from(ttl),
+                        RedisStringCommands.SetOption.upsert());
+            });
+            return null;
+        }), () -> null);
+        TwoLevelCache nearCache = nearCache(cacheName);
+        if (nearCache != null) {
+            entries.forEach(nearCache::putLocal);
+        }
+    }
+
+    /**
+     * {@link #putAll} for entities that were just created. Other nodes are told about the new
+     * keys, as for a single {@code put}, so their id filters stop treating them as missing.
+     */
+    public void putAllCreated(String cacheName, Map<?, ?> entries) {
+        putAll(cacheName, entries);
+        if (cacheManager instanceof TwoLevelCacheManager twoLevelCacheManager) {
+            twoLevelCacheManager.announce(cacheName, entries.keySet());
+        }
+    }
+
+    /**
+     * Deletes {@code keys} from Redis in one pipeline and from this node's local tier. Used for
+     * changes every node is told about on its own, so no invalidation is published.
+     */
+    public void evictAll(String cacheName, Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = configuration(cacheName);
+        String prefix = config.getKeyPrefixFor(cacheName);
+        Boolean evicted = circuitBreaker.execute(() -> {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                keys.forEach(key -> connection.keyCommands()
+                        .del(toBytes(config.getKeySerializationPair().write(prefix + key))));
+                return null;
+            });
+            return true;
+        }, () -> false);
+        TwoLevelCache nearCache = nearCache(cacheName);
+        if (nearCache == null) {
+            return;
+        }
+        if (evicted) {
+            keys.forEach(key -> nearCache.evictLocal(TwoLevelCache.localKey(key)));
+        } else {
+            // Redis was unavailable: evict through the cache so the keys are replayed on recovery.
+            keys.forEach(nearCache::evict);
+        }
+    }
+
+    private TwoLevelCache nearCache(String cacheName) {
+        return cacheManager.getCache(cacheName) instanceof TwoLevelCache twoLevelCache ? twoLevelCache : null;
+    }
+
+    private RedisCacheConfiguration configuration(String cacheName) {
+        return redisCacheManager.getCacheConfigurations()
+                .getOrDefault(cacheName, RedisCacheConfiguration.defaultCacheConfig());
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
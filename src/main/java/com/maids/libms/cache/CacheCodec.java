@@ -0,0 +1,45 @@
+package com.maids.libms.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.util.Arrays;
+
+/**
+ * Wire formats available to {@link CacheValueSerializer}. The id is written into every entry,
+ * so ids must never be reused or renumbered.
+ */
+public enum CacheCodec {
+    JSON(1, new JsonFactory()),
+    SMILE(2, new SmileFactory()),
+    CBOR(3, new CBORFactory());
+
+    private final byte id;
+    private final ObjectMapper mapper;
+
+    CacheCodec(int id, JsonFactory factory) {
+        this.id = (byte) id;
+        this.mapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    ObjectMapper mapper() {
+        return mapper;
+    }
+
+    static CacheCodec fromId(byte id) {
+        return Arrays.stream(values())
+                .filter(codec -> codec.id == id)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown cache codec id " + id));
+    }
+}
@@ -0,0 +1,27 @@
+package com.maids.libms.cache;
+
+import java.util.List;
+
+/**
+ * Published on the invalidation channel whenever a node writes to or evicts from a
+ * {@link TwoLevelCache}. A message names either one {@code key} or a batch of {@code keys};
+ * with neither, the whole cache was cleared. Nodes that predate {@code keys} read a batch as a
+ * clear, which is safe.
+ */
+public record CacheInvalidationMessage(String origin, String cacheName, String key, List<String> keys) {
+
+    public CacheInvalidationMessage(String origin, String cacheName, String key) {
+        this(origin, cacheName, key, null);
+    }
+
+    public static CacheInvalidationMessage batch(String origin, String cacheName, List<String> keys) {
+        return new CacheInvalidationMessage(origin, cacheName, null, keys);
+    }
+
+    /**
+     * The keys this message names, or {@code null} if it clears the whole cache.
+     */
+    public List<String> affectedKeys() {
+        return keys != null ? keys : key != null ? List.of(key) : null;
+    }
+}
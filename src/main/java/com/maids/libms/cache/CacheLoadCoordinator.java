@@ -0,0 +1,46 @@
+package com.maids.libms.cache;
+
+import java.time.Duration;
+
+/**
+ * Cross-node side of a {@link TwoLevelCache} load: an optional lease so only one node
+ * recomputes a missing entry, and the remaining L2 lifetime used for early refresh.
+ */
+public interface CacheLoadCoordinator {
+
+    /** Loads are coordinated within the node only; nothing is asked of Redis. */
+    CacheLoadCoordinator LOCAL = new CacheLoadCoordinator() {
+        @Override
+        public boolean tryLease(String key) {
+            return true;
+        }
+
+        @Override
+        public void releaseLease(String key) {
+        }
+
+        @Override
+        public Duration leaseWait() {
+            return Duration.ZERO;
+        }
+
+        @Override
+        public long remainingTtlMillis(String key) {
+            return -1;
+        }
+    };
+
+    /**
+     * @return {@code true} if this node should load the entry, {@code false} if another node
+     * holds the lease and the caller should wait for it to publish the value
+     */
+    boolean tryLease(String key);
+
+    void releaseLease(String key);
+
+    /** How long a caller that lost the lease waits for the holder before loading anyway. */
+    Duration leaseWait();
+
+    /** Remaining TTL of the L2 entry in milliseconds, or a negative value if unknown. */
+    long remainingTtlMillis(String key);
+}
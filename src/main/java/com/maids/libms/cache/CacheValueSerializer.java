@@ -0,0 +1,97 @@
+package com.maids.libms.cache;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Typed value serializer for a single cache. Since every cache holds one type, entries carry
+ * no class hint; instead each value starts with a two byte header:
+ * <pre>
+ *   [0xC1][flags: codec id | 0x10 if LZ4-compressed]([original length: int])[payload]
+ * </pre>
+ * 0xC1 never starts a JSON document, so entries written by the previous
+ * {@link GenericJackson2JsonRedisSerializer} are recognised and still decoded until they expire.
+ * Entries are decoded with the codec recorded in their header, which lets a cache switch codecs
+ * without flushing.
+ */
+public class CacheValueSerializer implements RedisSerializer<Object> {
+    static final byte MAGIC = (byte) 0xC1;
+    private static final byte COMPRESSED = 0x10;
+    private static final byte CODEC_MASK = 0x0F;
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final Class<?> type;
+    private final CacheCodec codec;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4.fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+    private final RedisSerializer<Object> legacySerializer = new GenericJackson2JsonRedisSerializer();
+
+    /**
+     * @param compressionThreshold payloads at least this many bytes long are LZ4-compressed;
+     *                             zero or less disables compression
+     */
+    public CacheValueSerializer(Class<?> type, CacheCodec codec, int compressionThreshold) {
+        this.type = type;
+        this.codec = codec;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] payload;
+        try {
+            payload = codec.mapper().writeValueAsBytes(value);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not write " + type.getSimpleName() + " as " + codec, ex);
+        }
+        if (compressionThreshold > 0 && payload.length >= compressionThreshold) {
+            byte[] compressed = compressor.compress(payload);
+            if (compressed.length + Integer.BYTES < payload.length) {
+                return ByteBuffer.allocate(2 + Integer.BYTES + compressed.length)
+                        .put(MAGIC)
+                        .put((byte) (codec.getId() | COMPRESSED))
+                        .putInt(payload.length)
+                        .put(compressed)
+                        .array();
+            }
+        }
+        return ByteBuffer.allocate(2 + payload.length)
+                .put(MAGIC)
+                .put(codec.getId())
+                .put(payload)
+                .array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacySerializer.deserialize(bytes);
+        }
+        byte flags = bytes[1];
+        CacheCodec entryCodec = CacheCodec.fromId((byte) (flags & CODEC_MASK));
+        try {
+            if ((flags & COMPRESSED) != 0) {
+                int length = ByteBuffer.wrap(bytes, 2, Integer.BYTES).getInt();
+                byte[] payload = decompressor.decompress(bytes, 2 + Integer.BYTES, length);
+                return entryCodec.mapper().readValue(payload, type);
+            }
+            return entryCodec.mapper().readValue(bytes, 2, bytes.length - 2, type);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not read " + type.getSimpleName() + " as " + entryCodec, ex);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.maids.libms.cache;
+
+import com.maids.libms.constant.CacheConstants;
+import com.maids.libms.model.BaseModel;
+import com.maids.libms.repository.BaseRepository;
+import com.maids.libms.repository.BookRepository;
+import com.maids.libms.repository.BorrowRecordRepository;
+import com.maids.libms.repository.PatronRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills the books and patrons caches before the application reports ready. Application
+ * runners complete before the readiness state switches to accepting traffic, so the first
+ * requests after a deploy or a Redis flush find warm caches.
+ * <p>
+ * Entities are ranked by borrow activity over the look-back window, loaded in batches with
+ * {@code findAllById}, written to Redis with one pipelined round trip per batch, and put
+ * into the local tier. Warm-up never fails startup: whatever has not finished when the time
+ * budget runs out is cancelled and logged.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmer implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final BookRepository bookRepository;
+    private final PatronRepository patronRepository;
+    private final CacheBulkOperations bulkOperations;
+
+    @Value("${application.cache.warm-up.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.cache.warm-up.top-n:1000}")
+    private int topN;
+
+    @Value("${application.cache.warm-up.lookback-days:30}")
+    private int lookbackDays;
+
+    @Value("${application.cache.warm-up.batch-size:200}")
+    private int batchSize;
+
+    @Value("${application.cache.warm-up.concurrency:2}")
+    private int concurrency;
+
+    @Value("${application.cache.warm-up.time-budget-ms:20000}")
+    private long timeBudgetMs;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<Callable<Integer>> batches = new ArrayList<>();
+        try {
+            LocalDateTime since = LocalDateTime.now().minusDays(lookbackDays);
+            PageRequest top = PageRequest.of(0, topN);
+            batches.addAll(batchesFor(CacheConstants.BOOK_CACHE, bookRepository,
+                    borrowRecordRepository.findMostBorrowedBookIds(since, top)));
+            batches.addAll(batchesFor(CacheConstants.PATRON_CACHE, patronRepository,
+                    borrowRecordRepository.findMostActivePatronIds(since, top)));
+        } catch (RuntimeException ex) {
+            log.warn("Cache warm-up skipped, could not rank entities", ex);
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        int warmed = 0;
+        int unfinished = 0;
+        try {
+            for (Future<Integer> batch : executor.invokeAll(batches, timeBudgetMs, TimeUnit.MILLISECONDS)) {
+                try {
+                    warmed += batch.get();
+                } catch (Exception ex) {
+                    unfinished++;
+                    if (!batch.isCancelled()) {
+                        log.warn("Cache warm-up batch failed", ex);
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Cache warm-up loaded {} entries in {} ms ({} of {} batches unfinished)",
+                warmed, System.currentTimeMillis() - start, unfinished, batches.size());
+    }
+
+    private <E extends BaseModel<Integer>> List<Callable<Integer>> batchesFor(String cacheName,
+                                                                              BaseRepository<E, Integer> repository,
+                                                                              List<Integer> ids) {
+        List<Callable<Integer>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Integer> batchIds = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            batches.add(() -> warm(cacheName, repository.findAllById(batchIds)));
+        }
+        return batches;
+    }
+
+    private <E extends BaseModel<Integer>> int warm(String cacheName, List<E> entities) {
+        Map<Integer, E> entries = new LinkedHashMap<>();
+        entities.forEach(entity -> entries.put(entity.getId(), entity));
+        bulkOperations.putAll(cacheName, entries);
+        return entries.size();
+    }
+}
@@ -0,0 +1,23 @@
+package com.maids.libms.cache;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializable snapshot of a {@link Page}: just the content and the total count, since the
+ * paging request is already part of the cache key.
+ */
+public record CachedPage<T>(List<T> content, long totalElements) {
+
+    public static <T> CachedPage<T> of(Page<T> page) {
+        return new CachedPage<>(new ArrayList<>(page.getContent()), page.getTotalElements());
+    }
+
+    public Page<T> toPage(Pageable pageable) {
+        return new PageImpl<>(content, pageable, totalElements);
+    }
+}
@@ -0,0 +1,147 @@
+package com.maids.libms.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.dao.DataAccessException;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Guards the Redis tier of a {@link TwoLevelCache} with a {@link RedisCircuitBreaker}. Reads
+ * that fail or are short-circuited become misses; writes and evictions that could not reach
+ * Redis are remembered and replayed as evictions once the breaker closes, so no entry written
+ * before the outage outlives an update made during it. If too many keys pile up the whole
+ * cache is cleared on recovery instead.
+ */
+public class CircuitBreakingCache extends AbstractValueAdaptingCache {
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakingCache.class);
+    private static final int MAX_PENDING_EVICTIONS = 10_000;
+
+    private final Cache delegate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final Counter shortCircuited;
+    private final Set<Object> pendingEvictions = ConcurrentHashMap.newKeySet();
+    private volatile boolean clearPending;
+
+    public CircuitBreakingCache(Cache delegate, RedisCircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        super(delegate instanceof AbstractValueAdaptingCache adapting && adapting.isAllowNullValues());
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.shortCircuited = Counter.builder("libms.cache.redis.short-circuited")
+                .description("Redis cache calls skipped or failed while Redis was unavailable")
+                .tag("cache", delegate.getName())
+                .register(meterRegistry);
+        circuitBreaker.addCloseListener(this::replayPendingEvictions);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        ValueWrapper wrapper = guarded(() -> delegate.get(key), null);
+        return wrapper == null ? null : toStoreValue(wrapper.get());
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (!circuitBreaker.allowRequest()) {
+            shortCircuited.increment();
+            try {
+                return valueLoader.call();
+            } catch (Exception ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            }
+        }
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        write(key, () -> delegate.put(key, value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return guarded(() -> delegate.putIfAbsent(key, value), () -> remember(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        write(key, () -> delegate.evict(key));
+    }
+
+    @Override
+    public void clear() {
+        guarded(() -> {
+            delegate.clear();
+            return null;
+        }, () -> clearPending = true);
+    }
+
+    private void write(Object key, Runnable call) {
+        guarded(() -> {
+            call.run();
+            return null;
+        }, () -> remember(key));
+    }
+
+    private <T> T guarded(Supplier<T> call, Runnable onUnavailable) {
+        if (!circuitBreaker.allowRequest()) {
+            shortCircuited.increment();
+            if (onUnavailable != null) {
+                onUnavailable.run();
+            }
+            return null;
+        }
+        try {
+            T result = call.get();
+            circuitBreaker.recordSuccess();
+            return result;
+        } catch (DataAccessException ex) {
+            circuitBreaker.recordFailure(ex);
+            shortCircuited.increment();
+            log.debug("Redis call on cache {} failed", getName(), ex);
+            if (onUnavailable != null) {
+                onUnavailable.run();
+            }
+            return null;
+        }
+    }
+
+    private void remember(Object key) {
+        if (pendingEvictions.size() >= MAX_PENDING_EVICTIONS) {
+            clearPending = true;
+        } else {
+            pendingEvictions.add(key);
+        }
+    }
+
+    private void replayPendingEvictions() {
+        if (clearPending) {
+            clearPending = false;
+            pendingEvictions.clear();
+            log.info("Clearing Redis cache {} after an outage", getName());
+            delegate.clear();
+            return;
+        }
+        for (Object key : pendingEvictions) {
+            delegate.evict(key);
+            pendingEvictions.remove(key);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.maids.libms.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Keeps cache failures out of the request path: a failed get is treated as a miss so the
+ * annotated method runs against the database, and failed writes are logged and dropped.
+ * Redis failures also count towards the {@link RedisCircuitBreaker}.
+ */
+public class CircuitBreakingCacheErrorHandler implements CacheErrorHandler {
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakingCacheErrorHandler.class);
+
+    private final RedisCircuitBreaker circuitBreaker;
+
+    public CircuitBreakingCacheErrorHandler(RedisCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+        handle("get", exception, cache, key);
+    }
+
+    @Override
+    public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+        handle("put", exception, cache, key);
+    }
+
+    @Override
+    public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+        handle("evict", exception, cache, key);
+    }
+
+    @Override
+    public void handleCacheClearError(RuntimeException exception, Cache cache) {
+        handle("clear", exception, cache, null);
+    }
+
+    private void handle(String operation, RuntimeException exception, Cache cache, Object key) {
+        if (exception instanceof DataAccessException) {
+            circuitBreaker.recordFailure(exception);
+        }
+        log.warn("Cache {} failed on {}::{}, continuing without the cache", operation, cache.getName(), key, exception);
+    }
+}
@@ -0,0 +1,223 @@
+package com.maids.libms.cache;
+
+import com.maids.libms.constant.CacheConstants;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Evicts cache entries for rows changed directly in the database. The triggers from
+ * {@code V2__cache_invalidation_triggers.sql} NOTIFY {@code <table>:<operation>:<ids>} once per
+ * statement; this component LISTENs on a dedicated connection outside the pool, collects
+ * notifications for {@code batch-window-ms} after the first one, and applies the batch with one
+ * pipelined eviction and one page-version bump per table.
+ * <p>
+ * Every node listens and evicts its own local tier. Notifications sent while a node was
+ * disconnected are lost, so after a reconnect the affected caches are cleared.
+ */
+@Component
+@RequiredArgsConstructor
+public class DatabaseChangeListener implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(DatabaseChangeListener.class);
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final Map<String, CachedTable> TABLES = Map.of(
+            "books", new CachedTable(CacheConstants.BOOK_CACHE, CacheConstants.BOOK_RESPONSE_CACHE,
+                    CacheConstants.BOOK_PAGE_CACHE),
+            "patrons", new CachedTable(CacheConstants.PATRON_CACHE, CacheConstants.PATRON_RESPONSE_CACHE,
+                    CacheConstants.PATRON_PAGE_CACHE));
+
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheManager cacheManager;
+    private final CacheBulkOperations bulkOperations;
+    private final PageCache pageCache;
+    private final NegativeLookupCache negativeLookupCache;
+
+    @Value("${application.cache.db-invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.cache.db-invalidation.channel:libms_cache_invalidation}")
+    private String channel;
+
+    @Value("${application.cache.db-invalidation.batch-window-ms:200}")
+    private long batchWindowMs;
+
+    @Value("${application.cache.db-invalidation.reconnect-ms:5000}")
+    private long reconnectMs;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "db-change-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = openConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    log.info("Listening on {} again, clearing caches that may have missed changes", channel);
+                    TABLES.values().forEach(this::clear);
+                    negativeLookupCache.rebuild();
+                } else {
+                    log.info("Listening for database changes on {}", channel);
+                }
+                connectedBefore = true;
+                while (running) {
+                    List<String> payloads = receiveBatch(pgConnection);
+                    if (!payloads.isEmpty()) {
+                        apply(payloads);
+                    }
+                }
+            } catch (SQLException | RuntimeException ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Database change listener failed, reconnecting in {}ms", reconnectMs, ex);
+                try {
+                    Thread.sleep(reconnectMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", dataSourceProperties.determineUsername());
+        properties.setProperty("password", dataSourceProperties.determinePassword());
+        properties.setProperty("ApplicationName", "libms-listener");
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+    }
+
+    /**
+     * Blocks until a notification arrives, then keeps collecting for the batch window so a
+     * burst of statements is applied once.
+     */
+    private List<String> receiveBatch(PGConnection connection) throws SQLException {
+        List<String> payloads = new ArrayList<>();
+        collect(connection.getNotifications(POLL_TIMEOUT_MS), payloads);
+        if (payloads.isEmpty()) {
+            return payloads;
+        }
+        long deadline = System.currentTimeMillis() + batchWindowMs;
+        long remaining;
+        while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+            collect(connection.getNotifications((int) remaining), payloads);
+        }
+        return payloads;
+    }
+
+    private static void collect(PGNotification[] notifications, List<String> payloads) {
+        if (notifications != null) {
+            Arrays.stream(notifications).map(PGNotification::getParameter).forEach(payloads::add);
+        }
+    }
+
+    /**
+     * Applies a batch of {@code <table>:<operation>:<ids>} payloads, coalescing repeated ids.
+     */
+    void apply(Collection<String> payloads) {
+        Map<String, TableChanges> changesByTable = new HashMap<>();
+        for (String payload : payloads) {
+            String[] parts = payload.split(":", 3);
+            if (parts.length != 3 || !TABLES.containsKey(parts[0])) {
+                log.warn("Ignoring unexpected database change notification {}", payload);
+                continue;
+            }
+            TableChanges changes = changesByTable.computeIfAbsent(parts[0], table -> new TableChanges());
+            boolean inserted = "INSERT".equals(parts[1]);
+            if ("*".equals(parts[2])) {
+                changes.all = true;
+                changes.rebuildIds |= inserted;
+            } else {
+                (inserted ? changes.created : changes.changed).addAll(Arrays.asList(parts[2].split(",")));
+            }
+        }
+
+        changesByTable.forEach((tableName, changes) -> {
+            CachedTable table = TABLES.get(tableName);
+            log.debug("Applying database changes to {}: {} changed, {} created, all={}",
+                    tableName, changes.changed.size(), changes.created.size(), changes.all);
+            if (changes.all) {
+                clear(table);
+            } else {
+                bulkOperations.evictAll(table.cacheName(), changes.changed);
+                bulkOperations.evictAll(table.responseCacheName(), changes.changed);
+                pageCache.bump(table.pageCacheName());
+            }
+            changes.created.forEach(id -> negativeLookupCache.recordCreated(table.cacheName(), id));
+        });
+        if (changesByTable.values().stream().anyMatch(changes -> changes.rebuildIds)) {
+            negativeLookupCache.rebuild();
+        }
+    }
+
+    private void clear(CachedTable table) {
+        for (String cacheName : List.of(table.cacheName(), table.responseCacheName())) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        pageCache.bump(table.pageCacheName());
+    }
+
+    private record CachedTable(String cacheName, String responseCacheName, String pageCacheName) {
+    }
+
+    private static final class TableChanges {
+        private final Set<String> changed = new HashSet<>();
+        private final Set<String> created = new HashSet<>();
+        private boolean all;
+        private boolean rebuildIds;
+    }
+}
@@ -0,0 +1,32 @@
+package com.maids.libms.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Spreads entry expiry uniformly over {@code ttl ± ttl * jitter}, so entries that were written
+ * together (after a deploy or a warm-up) do not all expire, and reload, in the same instant.
+ */
+public class JitteredTtlFunction implements RedisCacheWriter.TtlFunction {
+    private final long ttlMillis;
+    private final long spreadMillis;
+
+    public JitteredTtlFunction(Duration ttl, double jitter) {
+        if (jitter < 0 || jitter >= 1) {
+            throw new IllegalArgumentException("TTL jitter must be in [0, 1), got " + jitter);
+        }
+        this.ttlMillis = ttl.toMillis();
+        this.spreadMillis = (long) (ttlMillis * jitter);
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        if (spreadMillis == 0) {
+            return Duration.ofMillis(ttlMillis);
+        }
+        long offset = ThreadLocalRandom.current().nextLong(-spreadMillis, spreadMillis + 1);
+        return Duration.ofMillis(ttlMillis + offset);
+    }
+}
@@ -0,0 +1,24 @@
+package com.maids.libms.cache;
+
+/**
+ * Approximate membership of the keys a cache can hold. {@link #mightContain} may report false
+ * positives but never false negatives, so a {@code false} answer lets a lookup skip Redis.
+ */
+public interface KeyPresence {
+
+    /** No knowledge: every key might exist. */
+    KeyPresence ANY = new KeyPresence() {
+        @Override
+        public boolean mightContain(String key) {
+            return true;
+        }
+
+        @Override
+        public void add(String key) {
+        }
+    };
+
+    boolean mightContain(String key);
+
+    void add(String key);
+}
@@ -0,0 +1,258 @@
+package com.maids.libms.cache;
+
+import com.maids.libms.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers ids that do not exist so lookups for them stop reaching Postgres. Two layers:
+ * <ul>
+ *   <li>a per-cache in-memory bloom filter of existing ids, seeded from the database at startup
+ *   and rebuilt periodically; an id the filter has never seen is rejected without any I/O.</li>
+ *   <li>short-lived Redis tombstones for ids that passed the filter but were not found (bloom
+ *   false positives and deleted rows), removed again when an entity with that id is created.</li>
+ * </ul>
+ * Until a filter is seeded every id is assumed to exist. Ids created on other nodes reach the
+ * filter through their cache announcements, which can be lost, so a filter miss is only
+ * trusted for ids no greater than the largest id seen at the last rebuild; newer ids fall
+ * through to the tombstones and the database. While the Redis circuit is open only the bloom
+ * filter answers; once it closes, tombstones of ids created meanwhile are removed and the
+ * filters are rebuilt to pick up announcements missed during the outage.
+ */
+@Component
+public class NegativeLookupCache {
+    private static final Logger log = LoggerFactory.getLogger(NegativeLookupCache.class);
+    private static final int MAX_PENDING_REMOVALS = 10_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final Set<String> pendingRemovals = ConcurrentHashMap.newKeySet();
+
+    @Value("${application.cache.negative.ttl-seconds:60}")
+    private long tombstoneTtlSeconds;
+
+    @Value("${application.cache.negative.bloom.fpp:0.01}")
+    private double bloomFpp;
+
+    @Value("${application.cache.negative.bloom.min-capacity:10000}")
+    private long bloomMinCapacity;
+
+    private final Map<String, TrackedIds> trackedIds = new ConcurrentHashMap<>();
+
+    public NegativeLookupCache(StringRedisTemplate redisTemplate, RedisCircuitBreaker circuitBreaker) {
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @PostConstruct
+    void init() {
+        circuitBreaker.addCloseListener(() -> {
+            removePendingTombstones();
+            rebuild();
+        });
+    }
+
+    /**
+     * Starts keeping a bloom filter for {@code cacheName}, built from {@code idSource}.
+     */
+    public void track(String cacheName, Supplier<? extends Collection<?>> idSource) {
+        trackedIds.putIfAbsent(cacheName, new TrackedIds(idSource));
+    }
+
+    public KeyPresence presence(String cacheName) {
+        return new KeyPresence() {
+            @Override
+            public boolean mightContain(String key) {
+                TrackedIds ids = trackedIds.get(cacheName);
+                return ids == null || ids.mightContain(key);
+            }
+
+            @Override
+            public void add(String key) {
+                TrackedIds ids = trackedIds.get(cacheName);
+                if (ids != null) {
+                    ids.add(key);
+                }
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${application.cache.negative.bloom.rebuild-ms:3600000}",
+            fixedDelayString = "${application.cache.negative.bloom.rebuild-ms:3600000}")
+    public void rebuild() {
+        trackedIds.forEach((cacheName, ids) -> {
+            try {
+                int size = ids.rebuild();
+                log.info("Rebuilt id filter for {} with {} ids", cacheName, size);
+            } catch (RuntimeException ex) {
+                log.warn("Could not rebuild id filter for {}, keeping the previous one", cacheName, ex);
+            }
+        });
+    }
+
+    /**
+     * Whether {@code id} is known not to exist, either because the bloom filter has never seen
+     * it and it is not newer than the filter, or because a recent lookup left a tombstone.
+     */
+    public boolean isKnownMissing(String cacheName, Object id) {
+        if (!presence(cacheName).mightContain(String.valueOf(id))) {
+            return true;
+        }
+        try {
+            return circuitBreaker.execute(() -> redisTemplate.hasKey(tombstoneKey(cacheName, id)), () -> false);
+        } catch (RuntimeException ex) {
+            log.warn("Could not read tombstone for {}::{}", cacheName, id, ex);
+            return false;
+        }
+    }
+
+    public void recordMissing(String cacheName, Object id) {
+        try {
+            circuitBreaker.execute(() -> {
+                redisTemplate.opsForValue().set(tombstoneKey(cacheName, id), "", Duration.ofSeconds(tombstoneTtlSeconds));
+                return null;
+            }, () -> null);
+        } catch (RuntimeException ex) {
+            log.warn("Could not write tombstone for {}::{}", cacheName, id, ex);
+        }
+    }
+
+    public void recordCreated(String cacheName, Object id) {
+        presence(cacheName).add(String.valueOf(id));
+        try {
+            String key = tombstoneKey(cacheName, id);
+            circuitBreaker.execute(() -> redisTemplate.delete(key), () -> {
+                if (pendingRemovals.size() < MAX_PENDING_REMOVALS) {
+                    pendingRemovals.add(key);
+                }
+                return false;
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Could not remove tombstone for {}::{}", cacheName, id, ex);
+        }
+    }
+
+    /**
+     * {@link #recordCreated} for many ids, removing their tombstones with a single command.
+     */
+    public void recordCreatedAll(String cacheName, Collection<?> ids) {
+        KeyPresence presence = presence(cacheName);
+        List<String> keys = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            presence.add(String.valueOf(id));
+            keys.add(tombstoneKey(cacheName, id));
+        }
+        try {
+            circuitBreaker.execute(() -> redisTemplate.delete(keys), () -> {
+                keys.stream()
+                        .limit(Math.max(0, MAX_PENDING_REMOVALS - pendingRemovals.size()))
+                        .forEach(pendingRemovals::add);
+                return 0L;
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Could not remove {} tombstones for {}", keys.size(), cacheName, ex);
+        }
+    }
+
+    private void removePendingTombstones() {
+        if (pendingRemovals.isEmpty()) {
+            return;
+        }
+        Set<String> keys = new HashSet<>(pendingRemovals);
+        redisTemplate.delete(keys);
+        pendingRemovals.removeAll(keys);
+    }
+
+    private static String tombstoneKey(String cacheName, Object id) {
+        return "libms:missing:" + cacheName + ":" + id;
+    }
+
+    private final class TrackedIds {
+        private final Supplier<? extends Collection<?>> idSource;
+        private volatile Snapshot snapshot;
+        /** Ids added while a rebuild is reading the database; replayed into the new filter. */
+        private Set<String> addedDuringRebuild;
+
+        private TrackedIds(Supplier<? extends Collection<?>> idSource) {
+            this.idSource = idSource;
+        }
+
+        boolean mightContain(String key) {
+            Snapshot current = snapshot;
+            return current == null || current.filter().mightContain(key) || current.isNewer(key);
+        }
+
+        synchronized void add(String key) {
+            if (snapshot != null) {
+                snapshot.filter().put(key);
+            }
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.add(key);
+            }
+        }
+
+        int rebuild() {
+            synchronized (this) {
+                addedDuringRebuild = new HashSet<>();
+            }
+            try {
+                Collection<?> ids = idSource.get();
+                BloomFilter rebuilt = new BloomFilter(Math.max(bloomMinCapacity, ids.size() * 2L), bloomFpp);
+                long maxId = Long.MIN_VALUE;
+                for (Object id : ids) {
+                    String key = String.valueOf(id);
+                    rebuilt.put(key);
+                    Long numericId = numericId(key);
+                    if (numericId != null) {
+                        maxId = Math.max(maxId, numericId);
+                    }
+                }
+                synchronized (this) {
+                    addedDuringRebuild.forEach(rebuilt::put);
+                    snapshot = new Snapshot(rebuilt, maxId);
+                }
+                return ids.size();
+            } finally {
+                synchronized (this) {
+                    addedDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * A filter together with the largest numeric id it was built from.
+     */
+    private record Snapshot(BloomFilter filter, long maxId) {
+        boolean isNewer(String key) {
+            Long numericId = numericId(key);
+            return numericId != null && numericId > maxId;
+        }
+    }
+
+    private static Long numericId(String key) {
+        try {
+            return Long.parseLong(key);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.maids.libms.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches list pages under {@code <version>:<page>:<size>:<sort>}, or
+ * {@code <version>:<variant>:<page>:<size>:<sort>} for other shapes of the same pages such as
+ * projections, where the version is a Redis counter per page cache. Any write to the entity
+ * bumps the counter, which orphans every cached page at once without scanning keys; orphaned
+ * pages simply expire.
+ * <p>
+ * Only the first {@code max-page} pages are cached, since browsing traffic rarely goes deeper.
+ * If Redis cannot be reached the page is read straight from the database, and versions that
+ * could not be bumped meanwhile are bumped once the Redis circuit closes.
+ */
+@Component
+public class PageCache {
+    private static final Logger log = LoggerFactory.getLogger(PageCache.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheManager cacheManager;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final Set<String> pendingBumps = ConcurrentHashMap.newKeySet();
+
+    @Value("${application.cache.pages.max-page:5}")
+    private int maxCachedPage;
+
+    public PageCache(StringRedisTemplate redisTemplate, CacheManager cacheManager,
+                     RedisCircuitBreaker circuitBreaker) {
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @PostConstruct
+    void init() {
+        circuitBreaker.addCloseListener(() -> pendingBumps.forEach(cacheName -> {
+            pendingBumps.remove(cacheName);
+            bump(cacheName);
+        }));
+    }
+
+    public <T> Page<T> get(String cacheName, Pageable pageable, Supplier<Page<T>> loader) {
+        return get(cacheName, null, pageable, loader);
+    }
+
+    /**
+     * Like {@link #get(String, Pageable, Supplier)}, for pages whose content depends on
+     * {@code variant} as well; a {@code null} variant shares the entries of the plain pages.
+     */
+    public <T> Page<T> get(String cacheName, String variant, Pageable pageable, Supplier<Page<T>> loader) {
+        if (pageable.isUnpaged() || pageable.getPageNumber() >= maxCachedPage) {
+            return loader.get();
+        }
+        if (!circuitBreaker.allowRequest()) {
+            return loader.get();
+        }
+        String version;
+        try {
+            version = redisTemplate.opsForValue().get(versionKey(cacheName));
+            circuitBreaker.recordSuccess();
+        } catch (RuntimeException ex) {
+            circuitBreaker.recordFailure(ex);
+            log.warn("Could not read page cache version for {}, reading from the database", cacheName, ex);
+            return loader.get();
+        }
+        Cache cache = cacheManager.getCache(cacheName);
+        String key = (version != null ? version : "0") + ":" + (variant != null ? variant + ":" : "")
+                + pageable.getPageNumber() + ":"
+                + pageable.getPageSize() + ":" + pageable.getSort();
+        CachedPage<T> page = cache.get(key, () -> CachedPage.of(loader.get()));
+        return page.toPage(pageable);
+    }
+
+    /**
+     * Invalidates every cached page of {@code cacheName}.
+     */
+    public void bump(String cacheName) {
+        if (!circuitBreaker.allowRequest()) {
+            pendingBumps.add(cacheName);
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().increment(versionKey(cacheName));
+            circuitBreaker.recordSuccess();
+        } catch (RuntimeException ex) {
+            circuitBreaker.recordFailure(ex);
+            pendingBumps.add(cacheName);
+            log.warn("Could not bump page cache version for {}", cacheName, ex);
+        }
+    }
+
+    private static String versionKey(String cacheName) {
+        return "libms:version:" + cacheName;
+    }
+}
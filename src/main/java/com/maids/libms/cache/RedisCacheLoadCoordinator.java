@@ -0,0 +1,84 @@
+package com.maids.libms.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CacheLoadCoordinator} for a Redis-backed cache. Leases are short {@code SET NX PX}
+ * keys owned by a node id and released only by their owner. Redis failures, or an open
+ * Redis circuit, never block a load: the lease is treated as granted and the TTL as unknown.
+ */
+public class RedisCacheLoadCoordinator implements CacheLoadCoordinator {
+    private static final Logger log = LoggerFactory.getLogger(RedisCacheLoadCoordinator.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final String keyPrefix;
+    private final String leasePrefix;
+    private final String nodeId;
+    private final boolean leaseEnabled;
+    private final Duration leaseTtl;
+
+    public RedisCacheLoadCoordinator(StringRedisTemplate redisTemplate, RedisCircuitBreaker circuitBreaker,
+                                     String cacheName, String keyPrefix, String nodeId,
+                                     boolean leaseEnabled, Duration leaseTtl) {
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.keyPrefix = keyPrefix;
+        this.leasePrefix = "libms:lease:" + cacheName + ":";
+        this.nodeId = nodeId;
+        this.leaseEnabled = leaseEnabled;
+        this.leaseTtl = leaseTtl;
+    }
+
+    @Override
+    public boolean tryLease(String key) {
+        if (!leaseEnabled || !circuitBreaker.allowRequest()) {
+            return true;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(leasePrefix + key, nodeId, leaseTtl));
+        } catch (RuntimeException ex) {
+            log.warn("Could not acquire load lease for {}{}, loading without it", leasePrefix, key, ex);
+            return true;
+        }
+    }
+
+    @Override
+    public void releaseLease(String key) {
+        if (!leaseEnabled || !circuitBreaker.allowRequest()) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(leasePrefix + key), nodeId);
+        } catch (RuntimeException ex) {
+            log.warn("Could not release load lease for {}{}", leasePrefix, key, ex);
+        }
+    }
+
+    @Override
+    public Duration leaseWait() {
+        return leaseEnabled ? leaseTtl : Duration.ZERO;
+    }
+
+    @Override
+    public long remainingTtlMillis(String key) {
+        try {
+            Long ttl = circuitBreaker.execute(() -> redisTemplate.getExpire(keyPrefix + key, TimeUnit.MILLISECONDS),
+                    () -> null);
+            return ttl != null ? ttl : -1;
+        } catch (RuntimeException ex) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.maids.libms.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Trips after {@code failure-threshold} consecutive Redis failures. While open, cache code
+ * skips Redis entirely and falls back to the local tier and the database, so an outage costs
+ * nothing instead of a command timeout per request. A background probe pings Redis and
+ * closes the breaker on the first success; close listeners then repair what was skipped.
+ */
+@Component
+public class RedisCircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    private final RedisConnectionFactory connectionFactory;
+    private final AtomicBoolean open = new AtomicBoolean();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+    private final Counter openedCounter;
+
+    @Value("${application.cache.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    public RedisCircuitBreaker(RedisConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        this.connectionFactory = connectionFactory;
+        Gauge.builder("libms.cache.redis.circuit.open", open, state -> state.get() ? 1 : 0)
+                .description("1 while Redis calls are short-circuited, 0 otherwise")
+                .register(meterRegistry);
+        this.openedCounter = Counter.builder("libms.cache.redis.circuit.opened")
+                .description("Times the Redis circuit breaker opened")
+                .register(meterRegistry);
+    }
+
+    public boolean allowRequest() {
+        return !open.get();
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+    }
+
+    public void recordFailure(Throwable cause) {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold && open.compareAndSet(false, true)) {
+            openedCounter.increment();
+            log.warn("Redis circuit opened after {} consecutive failures: {}", failureThreshold, cause.toString());
+        }
+    }
+
+    /**
+     * Runs {@code action} against Redis unless the breaker is open, recording the outcome.
+     * Returns {@code fallback} when the call is skipped or fails with a data access error.
+     */
+    public <T> T execute(Supplier<T> action, Supplier<T> fallback) {
+        if (!allowRequest()) {
+            return fallback.get();
+        }
+        try {
+            T result = action.get();
+            recordSuccess();
+            return result;
+        } catch (DataAccessException ex) {
+            recordFailure(ex);
+            log.debug("Redis call failed", ex);
+            return fallback.get();
+        }
+    }
+
+    /**
+     * Registers work to run each time the breaker closes again.
+     */
+    public void addCloseListener(Runnable listener) {
+        closeListeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${application.cache.circuit-breaker.probe-interval-ms:1000}")
+    public void probe() {
+        if (!open.get()) {
+            return;
+        }
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.ping();
+        } catch (RuntimeException ex) {
+            log.debug("Redis probe failed, circuit stays open", ex);
+            return;
+        }
+        consecutiveFailures.set(0);
+        if (open.compareAndSet(true, false)) {
+            log.info("Redis reachable again, circuit closed");
+            closeListeners.forEach(listener -> {
+                try {
+                    listener.run();
+                } catch (RuntimeException ex) {
+                    log.warn("Redis circuit close listener failed", ex);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.maids.libms.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.function.Supplier;
+
+/**
+ * Caches entities as the JSON bytes sent to clients, serialized once with the MVC
+ * {@link ObjectMapper}. Redis stores the bytes verbatim, so a hit costs no deserialization and
+ * no re-serialization; the byte array read from Redis is the one written to the response.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseBodyCache {
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Returns the JSON body cached under {@code key}, serializing {@code loader}'s result on a
+     * miss. Exceptions thrown by the loader are rethrown unchanged.
+     */
+    public byte[] get(String cacheName, Object key, Supplier<?> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return serialize(loader.get());
+        }
+        try {
+            return cache.get(key, () -> serialize(loader.get()));
+        } catch (Cache.ValueRetrievalException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Replaces the cached body of {@code key} with {@code value}, serialized now. Used on
+     * update instead of an eviction: after an eviction, a reader that loaded the entity before
+     * the update could cache its old body again for the whole TTL.
+     */
+    public void put(String cacheName, Object key, Object value) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.put(key, serialize(value));
+        }
+    }
+
+    /**
+     * Strong ETag of a response body.
+     */
+    public static String etag(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize response body", ex);
+        }
+    }
+}
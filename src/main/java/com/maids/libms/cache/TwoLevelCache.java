@@ -0,0 +1,389 @@
+package com.maids.libms.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+/**
+ * A Spring {@link org.springframework.cache.Cache} that keeps a size-bounded in-process copy
+ * (L1) of a shared Redis cache (L2). Reads are served from L1 when possible and fall back to
+ * L2; every write or eviction goes to L2 first, updates the local copy, and is then announced
+ * so other nodes drop their L1 entry for the same key.
+ * <p>
+ * {@link #get(Object, Callable)} (used by {@code @Cacheable(sync = true)}) loads each key at
+ * most once at a time per node: concurrent callers wait for the in-flight load and share its
+ * result. Across nodes the {@link CacheLoadCoordinator} can grant a short lease, and entries
+ * found in L2 may be refreshed in the background shortly before they expire, with a
+ * probability that grows as expiry approaches (XFetch).
+ * <p>
+ * A {@link KeyPresence} filter lets lookups for keys that cannot exist skip Redis entirely;
+ * every key written here or announced by another node is added to it.
+ * <p>
+ * Null values are cached only if the L2 cache allows them. L1 holds the same instances that
+ * callers get back, so cached values must not be mutated.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+    private final String name;
+    private final Cache<String, Object> local;
+    private final org.springframework.cache.Cache remote;
+    private final BiConsumer<String, String> invalidationPublisher;
+    private final CacheLoadCoordinator coordinator;
+    private final KeyPresence presence;
+    private final Executor refreshExecutor;
+    private final double earlyRefreshBeta;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    /** Moving average of loader time, the recompute cost in the XFetch formula. */
+    private volatile double averageLoadMillis;
+
+    private final Counter localHits;
+    private final Counter remoteHits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter evictions;
+    private final Counter coalescedLoads;
+    private final Counter earlyRefreshes;
+    private final Timer remoteGetTimer;
+    private final Timer remotePutTimer;
+    private final Timer remoteEvictTimer;
+
+    public TwoLevelCache(String name, Cache<String, Object> local, org.springframework.cache.Cache remote,
+                         BiConsumer<String, String> invalidationPublisher, MeterRegistry meterRegistry) {
+        this(name, local, remote, invalidationPublisher, meterRegistry, CacheLoadCoordinator.LOCAL, KeyPresence.ANY,
+                Runnable::run, 0);
+    }
+
+    /**
+     * @param earlyRefreshBeta XFetch aggressiveness; {@code 0} disables early refresh, {@code 1}
+     *                         is the usual setting and larger values refresh earlier
+     */
+    public TwoLevelCache(String name, Cache<String, Object> local, org.springframework.cache.Cache remote,
+                         BiConsumer<String, String> invalidationPublisher, MeterRegistry meterRegistry,
+                         CacheLoadCoordinator coordinator, KeyPresence presence, Executor refreshExecutor,
+                         double earlyRefreshBeta) {
+        super(remote instanceof AbstractValueAdaptingCache adapting && adapting.isAllowNullValues());
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+        this.coordinator = coordinator;
+        this.presence = presence;
+        this.refreshExecutor = refreshExecutor;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+
+        this.localHits = getsCounter(meterRegistry, "hit", "local");
+        this.remoteHits = getsCounter(meterRegistry, "hit", "remote");
+        this.misses = getsCounter(meterRegistry, "miss", "none");
+        this.puts = Counter.builder("libms.cache.puts")
+                .description("Entries written to the cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.evictions = Counter.builder("libms.cache.evictions")
+                .description("Explicit evictions and clears")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.coalescedLoads = Counter.builder("libms.cache.loads.coalesced")
+                .description("Cache misses that waited for a load already in flight instead of loading")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.earlyRefreshes = Counter.builder("libms.cache.refreshes.early")
+                .description("Entries reloaded in the background before their Redis TTL ran out")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.remoteGetTimer = remoteTimer(meterRegistry, "get");
+        this.remotePutTimer = remoteTimer(meterRegistry, "put");
+        this.remoteEvictTimer = remoteTimer(meterRegistry, "evict");
+    }
+
+    private Counter getsCounter(MeterRegistry meterRegistry, String result, String level) {
+        return Counter.builder("libms.cache.gets")
+                .description("Cache lookups by result and the level that answered")
+                .tag("cache", name)
+                .tag("result", result)
+                .tag("level", level)
+                .register(meterRegistry);
+    }
+
+    private Timer remoteTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("libms.cache.redis.latency")
+                .description("Round trip time of Redis cache calls")
+                .tag("cache", name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        if (!presence.mightContain(localKey)) {
+            misses.increment();
+            return null;
+        }
+        ValueWrapper wrapper = remoteGetTimer.record(() -> remote.get(key));
+        if (wrapper == null || (wrapper.get() == null && !isAllowNullValues())) {
+            misses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        Object storeValue = toStoreValue(wrapper.get());
+        local.put(localKey, storeValue);
+        return storeValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = local.getIfPresent(localKey(key));
+        if (value != null) {
+            localHits.increment();
+            return (T) fromStoreValue(value);
+        }
+        if (!presence.mightContain(localKey(key))) {
+            // The loader is expected to fail fast for a missing key; if it does find a value
+            // (created elsewhere and not announced yet) it is cached like any other load.
+            misses.increment();
+            return (T) load(key, valueLoader);
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(localKey(key), load);
+        if (existing != null) {
+            coalescedLoads.increment();
+            return (T) fromStoreValue(await(existing));
+        }
+        Fetched fetched;
+        try {
+            fetched = fetch(key, valueLoader);
+            load.complete(fetched.storeValue());
+        } catch (RuntimeException ex) {
+            load.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(localKey(key), load);
+        }
+        if (fetched.fromRemote()) {
+            maybeRefreshEarly(key, valueLoader);
+        }
+        return (T) fromStoreValue(fetched.storeValue());
+    }
+
+    private Fetched fetch(Object key, Callable<?> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = remoteGetTimer.record(() -> remote.get(key));
+        if (wrapper != null && (wrapper.get() != null || isAllowNullValues())) {
+            remoteHits.increment();
+            Object storeValue = toStoreValue(wrapper.get());
+            local.put(localKey, storeValue);
+            return new Fetched(storeValue, true);
+        }
+        misses.increment();
+        if (!coordinator.tryLease(localKey)) {
+            Object published = awaitLeaseHolder(key);
+            if (published != null) {
+                return new Fetched(published, false);
+            }
+        }
+        try {
+            return new Fetched(toStoreValue(load(key, valueLoader)), false);
+        } finally {
+            coordinator.releaseLease(localKey);
+        }
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object loaded;
+        try {
+            loaded = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+        averageLoadMillis = averageLoadMillis == 0 ? elapsedMillis : 0.8 * averageLoadMillis + 0.2 * elapsedMillis;
+        put(key, loaded);
+        return loaded;
+    }
+
+    /**
+     * Polls L2 while another node holds the lease. Returns the store value it published, or
+     * {@code null} if the lease ran out first and the caller should load the entry itself.
+     */
+    private Object awaitLeaseHolder(Object key) {
+        long deadline = System.nanoTime() + coordinator.leaseWait().toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            ValueWrapper wrapper = remoteGetTimer.record(() -> remote.get(key));
+            if (wrapper != null && (wrapper.get() != null || isAllowNullValues())) {
+                Object storeValue = toStoreValue(wrapper.get());
+                local.put(localKey(key), storeValue);
+                return storeValue;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * XFetch: refresh when {@code ttl <= delta * beta * -ln(random)}, where delta is the
+     * average load time. Refreshes run on the refresh executor and are skipped while a load
+     * for the same key is in flight.
+     */
+    private void maybeRefreshEarly(Object key, Callable<?> valueLoader) {
+        if (earlyRefreshBeta <= 0 || averageLoadMillis <= 0) {
+            return;
+        }
+        long remainingMillis = coordinator.remainingTtlMillis(localKey(key));
+        if (remainingMillis < 0) {
+            return;
+        }
+        double threshold = averageLoadMillis * earlyRefreshBeta * -Math.log(ThreadLocalRandom.current().nextDouble());
+        if (remainingMillis > threshold) {
+            return;
+        }
+        CompletableFuture<Object> refresh = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(localKey(key), refresh) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    earlyRefreshes.increment();
+                    refresh.complete(toStoreValue(load(key, valueLoader)));
+                } catch (RuntimeException ex) {
+                    refresh.completeExceptionally(ex);
+                } finally {
+                    inFlight.remove(localKey(key), refresh);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(localKey(key), refresh);
+        }
+    }
+
+    private record Fetched(Object storeValue, boolean fromRemote) {
+    }
+
+    private static Object await(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null && !isAllowNullValues()) {
+            evict(key);
+            return;
+        }
+        remotePutTimer.record(() -> remote.put(key, value));
+        local.put(localKey(key), toStoreValue(value));
+        if (value != null) {
+            presence.add(localKey(key));
+        }
+        puts.increment();
+        invalidationPublisher.accept(name, localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remotePutTimer.record(() -> remote.putIfAbsent(key, value));
+        local.invalidate(localKey(key));
+        if (existing == null) {
+            puts.increment();
+            invalidationPublisher.accept(name, localKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteEvictTimer.record(() -> remote.evict(key));
+        local.invalidate(localKey(key));
+        evictions.increment();
+        invalidationPublisher.accept(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remoteEvictTimer.record(() -> remote.clear());
+        local.invalidateAll();
+        evictions.increment();
+        invalidationPublisher.accept(name, null);
+    }
+
+    /**
+     * Reads L1 only. Returns {@code null} on a local miss.
+     */
+    public ValueWrapper getLocal(Object key) {
+        Object value = local.getIfPresent(localKey(key));
+        if (value == null) {
+            return null;
+        }
+        localHits.increment();
+        return toValueWrapper(value);
+    }
+
+    /**
+     * Fills L1 only, for values that were just written to Redis by other means (warm-up and
+     * bulk operations).
+     */
+    public void putLocal(Object key, Object value) {
+        local.put(localKey(key), toStoreValue(value));
+        presence.add(localKey(key));
+    }
+
+    /**
+     * Drops a local entry after another node changed it; Redis is left untouched. The key is
+     * also recorded as present, since another node just wrote or evicted it.
+     */
+    public void evictLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+            presence.add(key);
+        }
+    }
+
+    /**
+     * L1 keys use the same string form Redis uses, so a key named in an invalidation
+     * message matches the local entry regardless of the key's original type.
+     */
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
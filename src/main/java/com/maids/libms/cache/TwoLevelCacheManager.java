@@ -0,0 +1,230 @@
+package com.maids.libms.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Wraps every cache of the Redis {@link CacheManager} in a {@link TwoLevelCache} and keeps the
+ * local tiers of all nodes coherent through Redis pub/sub: local writes and evictions are
+ * published on {@code channel}, and messages from other nodes evict the matching L1 entries.
+ * Messages published by this node are ignored. Every Redis tier is guarded by the shared
+ * {@link RedisCircuitBreaker}, so an outage degrades the caches to local-only.
+ * <p>
+ * Messages that could not be published are kept (up to {@code MAX_PENDING_KEYS} keys, beyond
+ * which the cache is announced as cleared) and sent in batches once the breaker closes, so
+ * other nodes still learn about keys written during an outage.
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+    private static final int MAX_PENDING_KEYS = 10_000;
+    private static final int MAX_KEYS_PER_MESSAGE = 1000;
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final TwoLevelCacheSettings settings;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Function<String, KeyPresence> keyPresence;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> pendingKeys = new ConcurrentHashMap<>();
+    private final Set<String> pendingClears = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pendingKeyCount = new AtomicInteger();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+                                ObjectMapper objectMapper, String channel, TwoLevelCacheSettings settings,
+                                Function<String, KeyPresence> keyPresence, RedisCircuitBreaker circuitBreaker,
+                                MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.settings = settings;
+        this.keyPresence = keyPresence;
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(1, 2, 30L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(64),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+        circuitBreaker.addCloseListener(this::publishPending);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalStateException("No Redis cache named " + name);
+        }
+        CacheLoadCoordinator coordinator = remote instanceof RedisCache redisCache
+                ? new RedisCacheLoadCoordinator(redisTemplate, circuitBreaker, name,
+                        redisCache.getCacheConfiguration().getKeyPrefixFor(name), nodeId,
+                        settings.leaseEnabled(), settings.leaseTtl())
+                : CacheLoadCoordinator.LOCAL;
+        return new TwoLevelCache(name, Caffeine.newBuilder()
+                .maximumSize(settings.localMaxSize())
+                .expireAfterWrite(settings.localTtl())
+                .build(), new CircuitBreakingCache(remote, circuitBreaker, meterRegistry), this::publishInvalidation, meterRegistry,
+                coordinator, keyPresence.apply(name), refreshExecutor, settings.earlyRefreshBeta());
+    }
+
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Tells the other nodes about {@code keys} written to {@code cacheName} by other means than
+     * this manager's caches, such as bulk writes, in messages of up to
+     * {@code MAX_KEYS_PER_MESSAGE} keys.
+     */
+    public void announce(String cacheName, Collection<?> keys) {
+        List<String> localKeys = keys.stream().map(TwoLevelCache::localKey).toList();
+        if (localKeys.isEmpty()) {
+            return;
+        }
+        if (!circuitBreaker.allowRequest()) {
+            keepPending(cacheName, localKeys);
+            return;
+        }
+        publishBatches(cacheName, localKeys);
+    }
+
+    private void publishBatches(String cacheName, List<String> keys) {
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_MESSAGE) {
+            List<String> chunk = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_MESSAGE));
+            publish(CacheInvalidationMessage.batch(nodeId, cacheName, List.copyOf(chunk)), cacheName);
+        }
+    }
+
+    private void publishInvalidation(String cacheName, String key) {
+        if (!circuitBreaker.allowRequest()) {
+            keepPending(cacheName, key == null ? null : List.of(key));
+            return;
+        }
+        publish(new CacheInvalidationMessage(nodeId, cacheName, key), cacheName);
+    }
+
+    private void publish(CacheInvalidationMessage invalidation, String cacheName) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(invalidation);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize cache invalidation message", ex);
+        }
+        try {
+            redisTemplate.convertAndSend(channel, payload);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to publish invalidation for {}, sending it again once Redis is back", cacheName, ex);
+            circuitBreaker.recordFailure(ex);
+            keepPending(cacheName, invalidation.affectedKeys());
+        }
+    }
+
+    /**
+     * Remembers an unpublished message; {@code null} keys stand for a clear of the cache.
+     */
+    private void keepPending(String cacheName, List<String> keys) {
+        if (keys == null || pendingKeyCount.get() + keys.size() > MAX_PENDING_KEYS) {
+            pendingClears.add(cacheName);
+            return;
+        }
+        Set<String> pending = pendingKeys.computeIfAbsent(cacheName, name -> ConcurrentHashMap.newKeySet());
+        keys.forEach(key -> {
+            if (pending.add(key)) {
+                pendingKeyCount.incrementAndGet();
+            }
+        });
+    }
+
+    private void publishPending() {
+        for (String cacheName : List.copyOf(pendingKeys.keySet())) {
+            Set<String> keys = pendingKeys.remove(cacheName);
+            if (keys == null) {
+                continue;
+            }
+            pendingKeyCount.addAndGet(-keys.size());
+            List<String> batch = List.copyOf(keys);
+            log.info("Publishing {} invalidations for {} held back while Redis was unavailable", batch.size(), cacheName);
+            publishBatches(cacheName, batch);
+        }
+        for (String cacheName : List.copyOf(pendingClears)) {
+            pendingClears.remove(cacheName);
+            log.info("Announcing {} as cleared, held back while Redis was unavailable", cacheName);
+            publish(new CacheInvalidationMessage(nodeId, cacheName, null), cacheName);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidationMessage invalidation;
+        try {
+            invalidation = objectMapper.readValue(message.getBody(), CacheInvalidationMessage.class);
+        } catch (IOException ex) {
+            log.warn("Ignoring malformed cache invalidation message", ex);
+            return;
+        }
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        List<String> keys = invalidation.affectedKeys();
+        // Recorded even before this node has used the cache, so lookups do not treat them as missing.
+        if (keys != null) {
+            KeyPresence presence = keyPresence.apply(invalidation.cacheName());
+            keys.forEach(presence::add);
+        }
+        TwoLevelCache cache = caches.get(invalidation.cacheName());
+        if (cache == null) {
+            return;
+        }
+        log.debug("Evicting local entries {}::{} changed by node {}",
+                invalidation.cacheName(), keys != null ? keys : "*", invalidation.origin());
+        if (keys == null) {
+            cache.evictLocal(null);
+        } else {
+            keys.forEach(cache::evictLocal);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.maids.libms.cache;
+
+import java.time.Duration;
+
+/**
+ * Tuning shared by every {@link TwoLevelCache} of a {@link TwoLevelCacheManager}.
+ *
+ * @param localMaxSize     maximum entries kept in each local (L1) cache
+ * @param localTtl         how long an L1 entry lives; bounds staleness if an invalidation is lost
+ * @param leaseEnabled     whether nodes take a Redis lease before loading a missing entry
+ * @param leaseTtl         lease lifetime, and how long other nodes wait for the holder
+ * @param earlyRefreshBeta XFetch aggressiveness, {@code 0} to disable early refresh
+ */
+public record TwoLevelCacheSettings(long localMaxSize, Duration localTtl, boolean leaseEnabled,
+                                    Duration leaseTtl, double earlyRefreshBeta) {
+}
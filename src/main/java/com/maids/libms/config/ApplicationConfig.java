@@ -1,7 +1,10 @@
 package com.maids.libms.config;
 
-import com.maids.libms.repository.UserRepository;
+import com.maids.libms.security.BoundedPasswordEncoder;
+import com.maids.libms.security.UserPrincipalCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,23 +15,33 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
-    private final UserRepository repository;
+    private final UserPrincipalCache principalCache;
+
+    @Value("${application.security.password-hashing.threads:0}")
+    private int passwordHashingThreads;
+
+    @Value("${application.security.password-hashing.queue-capacity:32}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${application.security.password-hashing.timeout-ms:3000}")
+    private long passwordHashingTimeoutMs;
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> repository.findByEmail(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return principalCache::loadByEmail;
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -38,7 +51,11 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int threads = passwordHashingThreads > 0
+                ? passwordHashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, passwordHashingQueueCapacity,
+                Duration.ofMillis(passwordHashingTimeoutMs), meterRegistry);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.maids.libms.config;
+
+import com.maids.libms.cache.CacheCodec;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-cache settings under {@code application.cache}, e.g.
+ * {@code application.cache.caches.books.ttl=30m}. Anything a cache leaves unset falls back to
+ * the defaults declared here; the default TTL itself is {@code application.cache.ttl.min}.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "application.cache")
+public class CacheProperties {
+    private CacheCodec codec = CacheCodec.SMILE;
+    private int compressionThreshold = 1024;
+    private double ttlJitter = 0.1;
+    private Map<String, CacheSpec> caches = new HashMap<>();
+
+    public CacheSpec specFor(String cacheName) {
+        return caches.getOrDefault(cacheName, new CacheSpec());
+    }
+
+    public CacheCodec codecFor(String cacheName) {
+        CacheCodec cacheCodec = specFor(cacheName).getCodec();
+        return cacheCodec != null ? cacheCodec : codec;
+    }
+
+    public double ttlJitterFor(String cacheName) {
+        Double jitter = specFor(cacheName).getTtlJitter();
+        return jitter != null ? jitter : ttlJitter;
+    }
+
+    @Getter @Setter
+    public static class CacheSpec {
+        private CacheCodec codec;
+        private Duration ttl;
+        private Double ttlJitter;
+        /** Replaces the default {@code <cacheName>::} key prefix. */
+        private String keyPrefix;
+        private boolean cacheNulls;
+    }
+}
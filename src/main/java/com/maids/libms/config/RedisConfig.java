@@ -1,35 +1,163 @@
 package com.maids.libms.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maids.libms.cache.CacheValueSerializer;
+import com.maids.libms.cache.CircuitBreakingCacheErrorHandler;
+import com.maids.libms.cache.JitteredTtlFunction;
+import com.maids.libms.cache.NegativeLookupCache;
+import com.maids.libms.cache.RedisCircuitBreaker;
+import com.maids.libms.cache.TwoLevelCacheManager;
+import com.maids.libms.cache.TwoLevelCacheSettings;
+import com.maids.libms.constant.CacheConstants;
+import com.maids.libms.model.Book;
+import com.maids.libms.model.Patron;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 @Configuration
-public class RedisConfig {
+@EnableConfigurationProperties(CacheProperties.class)
+@RequiredArgsConstructor
+public class RedisConfig implements CachingConfigurer {
+    /** Value type of each typed cache; other caches keep the self-describing JSON serializer. */
+    private static final Map<String, Class<?>> CACHE_VALUE_TYPES = Map.of(
+            CacheConstants.BOOK_CACHE, Book.class,
+            CacheConstants.PATRON_CACHE, Patron.class);
+
+    /** Caches holding ready-to-send response bodies, stored in Redis as-is. */
+    private static final Set<String> RAW_BYTES_CACHES = Set.of(
+            CacheConstants.BOOK_RESPONSE_CACHE, CacheConstants.PATRON_RESPONSE_CACHE);
+
+    /** Resolved lazily so the caching infrastructure does not force the breaker's dependencies early. */
+    private final ObjectProvider<RedisCircuitBreaker> circuitBreaker;
+
     @Value("${application.cache.ttl.min:10}")
     long CacheTtlMinutes;
 
+    @Value("${application.cache.local.max-size:10000}")
+    long localCacheMaxSize;
+
+    @Value("${application.cache.local.ttl-seconds:60}")
+    long localCacheTtlSeconds;
+
+    @Value("${application.cache.invalidation-channel:libms:cache:invalidation}")
+    String invalidationChannel;
+
+    @Value("${application.cache.lease.enabled:false}")
+    boolean leaseEnabled;
+
+    @Value("${application.cache.lease.ttl-ms:2000}")
+    long leaseTtlMs;
+
+    @Value("${application.cache.early-refresh.beta:1.0}")
+    double earlyRefreshBeta;
+
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                               CacheProperties cacheProperties) {
+        RedisCacheConfiguration config = baseConfiguration(Duration.ofMinutes(CacheTtlMinutes),
+                cacheProperties.getTtlJitter(), false);
+
+        Set<String> cacheNames = new HashSet<>(CACHE_VALUE_TYPES.keySet());
+        cacheNames.addAll(RAW_BYTES_CACHES);
+        cacheNames.addAll(cacheProperties.getCaches().keySet());
+        Map<String, RedisCacheConfiguration> cacheConfigs = new HashMap<>();
+        for (String cacheName : cacheNames) {
+            cacheConfigs.put(cacheName, cacheConfiguration(cacheName, cacheProperties));
+        }
+
+        return RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(config)
+                .withInitialCacheConfigurations(cacheConfigs)
+                .build();
+    }
+
+    private RedisCacheConfiguration cacheConfiguration(String cacheName, CacheProperties cacheProperties) {
+        CacheProperties.CacheSpec spec = cacheProperties.specFor(cacheName);
+        Duration ttl = spec.getTtl() != null ? spec.getTtl() : Duration.ofMinutes(CacheTtlMinutes);
+        RedisCacheConfiguration config = baseConfiguration(ttl, cacheProperties.ttlJitterFor(cacheName),
+                spec.isCacheNulls());
+
+        if (spec.getKeyPrefix() != null) {
+            config = config.computePrefixWith(name -> spec.getKeyPrefix());
+        }
+        Class<?> valueType = CACHE_VALUE_TYPES.get(cacheName);
+        if (valueType != null) {
+            config = config.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                    new CacheValueSerializer(valueType, cacheProperties.codecFor(cacheName),
+                            cacheProperties.getCompressionThreshold())));
+        } else if (RAW_BYTES_CACHES.contains(cacheName)) {
+            config = config.serializeValuesWith(
+                    RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.byteArray()));
+        }
+        return config;
+    }
+
+    private RedisCacheConfiguration baseConfiguration(Duration ttl, double ttlJitter, boolean cacheNulls) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(CacheTtlMinutes))
-                .disableCachingNullValues()
+                .entryTtl(new JitteredTtlFunction(ttl, ttlJitter))
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
+        return cacheNulls ? config : config.disableCachingNullValues();
+    }
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .build();
+    /**
+     * Near cache used by {@code @Cacheable} and friends: an in-process tier in front of
+     * {@link #redisCacheManager}, kept coherent across nodes through Redis pub/sub.
+     */
+    @Bean
+    @Primary
+    public TwoLevelCacheManager cacheManager(RedisCacheManager redisCacheManager,
+                                             StringRedisTemplate redisTemplate,
+                                             ObjectMapper objectMapper,
+                                             NegativeLookupCache negativeLookupCache,
+                                             RedisCircuitBreaker redisCircuitBreaker,
+                                             MeterRegistry meterRegistry) {
+        TwoLevelCacheSettings settings = new TwoLevelCacheSettings(localCacheMaxSize,
+                Duration.ofSeconds(localCacheTtlSeconds), leaseEnabled, Duration.ofMillis(leaseTtlMs), earlyRefreshBeta);
+        return new TwoLevelCacheManager(redisCacheManager, redisTemplate, objectMapper, invalidationChannel,
+                settings, negativeLookupCache::presence, redisCircuitBreaker, meterRegistry);
+    }
+
+    /**
+     * Cache failures never fail a request; annotated methods fall through to the database.
+     */
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new CircuitBreakingCacheErrorHandler(circuitBreaker.getObject());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(invalidationChannel));
+        return container;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package com.maids.libms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to read replicas when
+ * {@code application.datasource.replicas.urls} is set; without it the auto-configured
+ * single pool is used. Replica pools take their settings from {@code spring.datasource.*},
+ * including the credentials, and differ only in URL, name and the read-only flag.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.datasource.replicas", name = "urls")
+public class ReplicaDataSourceConfig {
+
+    @Value("${application.datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${application.datasource.replicas.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Value("${application.datasource.replicas.sticky-window-ms:5000}")
+    private long stickyWindowMs;
+
+    /** Kept short so a replica that is down fails over to the primary quickly. */
+    @Value("${application.datasource.replicas.connection-timeout-ms:2000}")
+    private long connectionTimeoutMs;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("libms-primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setPoolName("libms-replica-" + (i + 1));
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(connectionTimeoutMs);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, Duration.ofMillis(maxLagMs),
+                Duration.ofMillis(stickyWindowMs), ReplicaRoutingDataSource.POSTGRES_LAG_QUERY);
+    }
+
+    /**
+     * The data source used by JPA, JDBC templates and Flyway. Outside read-only transactions
+     * it resolves to the primary, so migrations and writes never reach a replica.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,282 @@
+package com.maids.libms.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Sends connections for read-only transactions to a replica and everything else to the
+ * primary. It must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so the connection is only chosen at the first statement, once the transaction's read-only
+ * flag is known.
+ * <p>
+ * Replicas are used round robin while their last health check succeeded with a replication
+ * lag of at most {@code maxLag}; with no usable replica, reads go to the primary. A user whose
+ * transaction wrote to the primary reads from the primary for {@code stickyWindow} after it
+ * committed, so they see their own writes before the replicas have replayed them. Read paths
+ * must therefore run in read-only transactions; any other work, including reads in a read-write
+ * transaction, uses the primary but does not make the user sticky.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    /**
+     * Replay lag in milliseconds on a Postgres standby; zero once everything received has been
+     * replayed, so an idle primary does not make its standbys look late.
+     */
+    public static final String POSTGRES_LAG_QUERY = "select case"
+            + " when not pg_is_in_recovery() or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+            + " else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0)"
+            + " end";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final int MAX_STICKY_USERS = 100_000;
+    /** Statements that never write; anything else sent to the primary counts as a write. */
+    private static final Pattern READ_STATEMENT = Pattern.compile(
+            "^\\s*(/\\*.*?\\*/\\s*)*(select|with|show|set|explain|values)\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMs;
+    private final String lagQuery;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration maxLag,
+                                    Duration stickyWindow, String lagQuery) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + (i + 1), replicas.get(i)));
+        }
+        this.maxLagMs = maxLag.toMillis();
+        this.lagQuery = lagQuery;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(MAX_STICKY_USERS)
+                .expireAfterWrite(stickyWindow)
+                .build();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = route();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException ex) {
+                markUnavailable(replica, ex);
+            }
+        }
+        return trackWrites(primary.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = route();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection(username, password);
+            } catch (SQLException ex) {
+                markUnavailable(replica, ex);
+            }
+        }
+        return trackWrites(primary.getConnection(username, password));
+    }
+
+    /**
+     * The replica for the current connection request, or {@code null} for the primary.
+     */
+    private Replica route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        String user = currentUser();
+        if (user != null && recentWriters.getIfPresent(user) != null) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Wraps a primary connection of a signed-in user outside a read-only transaction so that its
+     * first write makes the user sticky: after commit inside a transaction, at once otherwise.
+     */
+    private Connection trackWrites(Connection connection) {
+        String user = currentUser();
+        if (user == null || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return connection;
+        }
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        WriteTracker tracker = new WriteTracker(user, inTransaction);
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(tracker);
+        }
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, new WriteDetector(connection, tracker));
+    }
+
+    static boolean isWrite(String sql) {
+        return !READ_STATEMENT.matcher(sql).find();
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * Measures every replica's lag; a replica that cannot be reached or lags by more than
+     * {@code maxLag} gets no reads until a later check finds it caught up.
+     */
+    @Scheduled(fixedDelayString = "${application.datasource.replicas.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(lagQuery)) {
+                long lagMs = result.next() ? result.getLong(1) : 0;
+                boolean available = lagMs <= maxLagMs;
+                if (available != replica.available) {
+                    log.info("Replica {} {} (lag {}ms, max {}ms)", replica.name,
+                            available ? "is back in rotation" : "is lagging, reads go elsewhere", lagMs, maxLagMs);
+                }
+                replica.available = available;
+            } catch (SQLException ex) {
+                markUnavailable(replica, ex);
+            }
+        }
+    }
+
+    private void markUnavailable(Replica replica, SQLException ex) {
+        if (replica.available) {
+            log.warn("Replica {} is unavailable, reads go elsewhere until it recovers", replica.name, ex);
+        }
+        replica.available = false;
+    }
+
+    /**
+     * Names of the replicas currently receiving reads.
+     */
+    public List<String> availableReplicas() {
+        return replicas.stream().filter(replica -> replica.available).map(replica -> replica.name).toList();
+    }
+
+    /**
+     * Closes the replica pools; the primary is owned by whoever created it.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private final class WriteTracker implements TransactionSynchronization {
+        private final String user;
+        private final boolean inTransaction;
+        private volatile boolean wrote;
+
+        WriteTracker(String user, boolean inTransaction) {
+            this.user = user;
+            this.inTransaction = inTransaction;
+        }
+
+        void onWrite() {
+            if (inTransaction) {
+                wrote = true;
+            } else {
+                recentWriters.put(user, Boolean.TRUE);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            if (wrote) {
+                recentWriters.put(user, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Reports statements that write to its {@link WriteTracker}; statements created by the
+     * connection are wrapped too, since they receive their SQL only when executed.
+     */
+    private static final class WriteDetector implements InvocationHandler {
+        private final Object target;
+        private final WriteTracker tracker;
+
+        WriteDetector(Object target, WriteTracker tracker) {
+            this.target = target;
+            this.tracker = tracker;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (args != null && args.length > 0 && args[0] instanceof String sql
+                    && (method.getName().startsWith("prepare") || method.getName().startsWith("execute")
+                    || method.getName().equals("addBatch"))
+                    && isWrite(sql)) {
+                tracker.onWrite();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+            if (method.getName().equals("createStatement") && result instanceof Statement statement) {
+                return Proxy.newProxyInstance(WriteDetector.class.getClassLoader(),
+                        new Class<?>[]{Statement.class}, new WriteDetector(statement, tracker));
+            }
+            return result;
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        /** Unavailable until the first health check has measured its lag. */
+        private volatile boolean available;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -3,4 +3,8 @@ package com.maids.libms.constant;
 public class CacheConstants {
     public static final String BOOK_CACHE = "books";
     public static final String PATRON_CACHE = "patrons";
+    public static final String BOOK_PAGE_CACHE = "bookPages";
+    public static final String PATRON_PAGE_CACHE = "patronPages";
+    public static final String BOOK_RESPONSE_CACHE = "bookResponses";
+    public static final String PATRON_RESPONSE_CACHE = "patronResponses";
 } 
\ No newline at end of file
@@ -2,7 +2,10 @@ package com.maids.libms.controller;
 
 import com.maids.libms.dto.AuthRequest;
 import com.maids.libms.dto.AuthResponse;
+import com.maids.libms.security.AuthRateLimiter;
+import com.maids.libms.security.ClientIpResolver;
 import com.maids.libms.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -14,14 +17,20 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService service;
+    private final AuthRateLimiter rateLimiter;
+    private final ClientIpResolver clientIpResolver;
 
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@Valid @RequestBody AuthRequest request) {
+    public ResponseEntity<AuthResponse> register(@Valid @RequestBody AuthRequest request,
+                                                 HttpServletRequest httpRequest) {
+        rateLimiter.acquire(request.getEmail(), clientIpResolver.resolve(httpRequest));
         return ResponseEntity.ok(service.register(request));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request,
+                                              HttpServletRequest httpRequest) {
+        rateLimiter.acquire(request.getEmail(), clientIpResolver.resolve(httpRequest));
         return ResponseEntity.ok(service.login(request));
     }
 
@@ -29,4 +38,9 @@ public class AuthController {
     public ResponseEntity<AuthResponse> refresh(@RequestHeader("Authorization") String refreshToken) {
         return ResponseEntity.ok(service.refreshToken(refreshToken));
     }
-} 
\ No newline at end of file
+
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(@RequestHeader("Authorization") String accessToken) {
+        return ResponseEntity.ok(service.logout(accessToken));
+    }
+}
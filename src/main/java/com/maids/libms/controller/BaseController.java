@@ -1,39 +1,263 @@
 package com.maids.libms.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.maids.libms.cache.ResponseBodyCache;
+import com.maids.libms.dto.CursorSlice;
 import com.maids.libms.model.BaseModel;
 import com.maids.libms.service.BaseService;
+import com.maids.libms.util.KeysetCursor;
 
 import jakarta.validation.Valid;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 public abstract class BaseController<T extends BaseModel<ID>, ID extends Serializable> {
     protected final BaseService<T, ID> service;
 
+    @Value("${application.api.max-ids:100}")
+    private int maxIds;
+
+    @Value("${application.api.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${spring.data.web.pageable.max-page-size:2000}")
+    private int maxPageSize;
+
+    private ObjectMapper objectMapper;
+    private ResponseBodyCache responseBodyCache;
+
     protected BaseController(BaseService<T, ID> service) {
         this.service = service;
     }
 
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Autowired(required = false)
+    public void setResponseBodyCache(ResponseBodyCache responseBodyCache) {
+        this.responseBodyCache = responseBodyCache;
+    }
+
+    /**
+     * Name of the cache holding serialized {@link #findById} responses, or {@code null} to
+     * serialize the entity on every request. The owning service must evict it on update and delete.
+     */
+    protected String responseCacheName() {
+        return null;
+    }
+
+    /**
+     * Whether {@code POST /batch} inserts entities as they are. Controllers whose entities must be
+     * created through a dedicated operation return {@code false}, and the endpoint answers 405.
+     */
+    protected boolean supportsBatchCreate() {
+        return true;
+    }
+
+    /**
+     * Read-only projection used for listings instead of managed entities, or {@code null} to list
+     * entities. Its record components are also the fields a client may request with
+     * {@code ?fields=}.
+     */
+    protected Class<? extends Record> viewType() {
+        return null;
+    }
+
+    /**
+     * A page of the listing view, or of entities when there is none. {@code fields} limits both
+     * the selected columns and the JSON to the named properties; {@code id} is always included.
+     */
     @GetMapping()
-    public ResponseEntity<?> findAll(Pageable pageable,
-                                   @RequestParam(required = false, defaultValue = "false") boolean unpaged) {
-        if (unpaged) {
-            List<T> entities = service.findAll();
-            return ResponseEntity.ok(entities);
+    public ResponseEntity<Page<?>> findAll(Pageable pageable, @RequestParam(required = false) List<String> fields) {
+        Class<? extends Record> viewType = viewType();
+        if (fields != null && !fields.isEmpty()) {
+            return ResponseEntity.ok(service.findAll(pageable, sparseFields(viewType, fields)));
+        }
+        if (viewType != null) {
+            return ResponseEntity.ok(service.findAll(pageable, viewType));
+        }
+        return ResponseEntity.ok(service.findAll(pageable));
+    }
+
+    private static List<String> sparseFields(Class<? extends Record> viewType, List<String> requested) {
+        if (viewType == null) {
+            throw new IllegalArgumentException("This listing does not support fields");
+        }
+        Set<String> allowed = Arrays.stream(viewType.getRecordComponents())
+                .map(RecordComponent::getName)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add("id");
+        for (String field : requested) {
+            if (!allowed.contains(field)) {
+                throw new IllegalArgumentException("Unknown field '" + field + "', expected one of " + allowed);
+            }
+            fields.add(field);
+        }
+        return List.copyOf(fields);
+    }
+
+    /**
+     * Every entity, streamed as it is read from the database instead of collected into a list:
+     * a JSON array by default, or one entity per line when the client accepts
+     * {@code application/x-ndjson}. Gzipped when the client accepts it.
+     */
+    @GetMapping(params = "unpaged=true")
+    public ResponseEntity<StreamingResponseBody> streamAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        StreamingResponseBody body = outputStream -> {
+            if (!gzip) {
+                writeAll(outputStream, ndjson);
+                return;
+            }
+            GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 8192);
+            writeAll(gzipStream, ndjson);
+            gzipStream.finish();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
         }
-        Page<T> entities = service.findAll(pageable);
-        return ResponseEntity.ok(entities);
+        return response.body(body);
+    }
+
+    private void writeAll(OutputStream out, boolean ndjson) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.setRootValueSeparator(null);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            service.forEach(entity -> {
+                try {
+                    writer.writeValue(generator, entity);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Properties a keyset walk may sort by. Each needs an index on {@code (column, id)}, or a
+     * unique index, so that seeking to the cursor does not scan.
+     */
+    protected Set<String> keysetSortProperties() {
+        return Set.of("id");
+    }
+
+    /**
+     * Keyset pagination for clients that walk a whole collection: an empty {@code after} starts
+     * a walk in {@code sort} order, and each response carries the cursor for the next slice.
+     * The cursor keeps the sort order, so later requests only pass {@code after} and {@code size}.
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorSlice<T>> findAfter(@RequestParam String after,
+                                                    @RequestParam(defaultValue = "20") int size,
+                                                    Sort sort) {
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Size must be between 1 and " + maxPageSize);
+        }
+        KeysetCursor cursor = after.isEmpty()
+                ? KeysetCursor.start(sort.isSorted() ? sort : Sort.by("id"))
+                : KeysetCursor.decode(after);
+        checkKeysetSort(cursor);
+
+        Window<T> window = service.findAfter(cursor.sort(), cursor.keys(), size);
+        String next = null;
+        if (window.hasNext()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            next = new KeysetCursor(cursor.sort(), Map.copyOf(last.getKeys())).encode();
+        }
+        return ResponseEntity.ok(new CursorSlice<>(window.getContent(), window.size(), window.hasNext(), next));
+    }
+
+    private void checkKeysetSort(KeysetCursor cursor) {
+        Set<String> allowed = keysetSortProperties();
+        for (Sort.Order order : cursor.sort()) {
+            if (!allowed.contains(order.getProperty()) || order.isIgnoreCase()) {
+                throw new IllegalArgumentException("Cursor pagination can only sort by " + allowed);
+            }
+        }
+        for (String key : cursor.keys().keySet()) {
+            if (!"id".equals(key) && cursor.sort().getOrderFor(key) == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<T>> findAllById(@RequestParam List<ID> ids) {
+        if (ids.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids can be requested at once");
+        }
+        return ResponseEntity.ok(service.findAllById(ids));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<T> findById(@PathVariable ID id) {
-        return ResponseEntity.ok(service.findById(id));
+    public ResponseEntity<?> findById(@PathVariable ID id, WebRequest request) {
+        if (responseBodyCache == null || responseCacheName() == null) {
+            return ResponseEntity.ok(service.findById(id));
+        }
+        byte[] body = responseBodyCache.get(responseCacheName(), id, () -> service.findById(id));
+        String etag = ResponseBodyCache.etag(body);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .body(body);
     }
 
     @PostMapping
@@ -41,6 +265,17 @@ public abstract class BaseController<T extends BaseModel<ID>, ID extends Seriali
         return ResponseEntity.ok(service.create(entity));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<T>> createAll(@RequestBody List<@Valid T> entities) {
+        if (!supportsBatchCreate()) {
+            throw new ResponseStatusException(HttpStatus.METHOD_NOT_ALLOWED, "Batch creation is not supported here");
+        }
+        if (entities.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " entities can be created at once");
+        }
+        return ResponseEntity.ok(service.createAll(entities));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<T> update(@PathVariable ID id, @Valid @RequestBody T entity) {
         return ResponseEntity.ok(service.update(id, entity));
@@ -1,15 +1,50 @@
 package com.maids.libms.controller;
 
+import com.maids.libms.constant.CacheConstants;
+import com.maids.libms.dto.BookView;
+import com.maids.libms.dto.BulkImportReport;
 import com.maids.libms.model.Book;
 import com.maids.libms.service.BookService;
+import com.maids.libms.service.BulkImportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.InputStream;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/books")
 public class BookController extends BaseController<Book, Integer> {
-    
-    public BookController(BookService service) {
+    private final BulkImportService bulkImportService;
+
+    public BookController(BookService service, BulkImportService bulkImportService) {
         super(service);
+        this.bulkImportService = bulkImportService;
+    }
+
+    @Override
+    protected String responseCacheName() {
+        return CacheConstants.BOOK_RESPONSE_CACHE;
+    }
+
+    @Override
+    protected Class<BookView> viewType() {
+        return BookView.class;
+    }
+
+    @Override
+    protected Set<String> keysetSortProperties() {
+        return Set.of("id", "isbn", "title", "author", "publicationYear");
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<BulkImportReport> bulkImport(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                       InputStream body) {
+        return ResponseEntity.ok(bulkImportService.importRows(BookService.BULK_IMPORT_TARGET, contentType, body));
     }
 }
@@ -3,6 +3,10 @@ package com.maids.libms.controller;
 import com.maids.libms.model.BorrowRecord;
 import com.maids.libms.service.BorrowService;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,6 +20,15 @@ public class BorrowController extends BaseController<BorrowRecord, Integer> {
         this.borrowService = service;
     }
 
+    /**
+     * Borrow records are only created by {@link #borrowBook}, which enforces that a book has
+     * at most one open borrow; a raw batch insert would bypass that.
+     */
+    @Override
+    protected boolean supportsBatchCreate() {
+        return false;
+    }
+
     @PostMapping("/borrow/{bookId}/patron/{patronId}")
     public ResponseEntity<BorrowRecord> borrowBook(
             @PathVariable Integer bookId,
@@ -29,4 +42,18 @@ public class BorrowController extends BaseController<BorrowRecord, Integer> {
             @PathVariable Integer patronId) {
         return ResponseEntity.ok(borrowService.returnBook(bookId, patronId));
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/patrons/{patronId}/borrows")
+    public ResponseEntity<Page<BorrowRecord>> findByPatron(
+            @PathVariable Integer patronId,
+            @PageableDefault(sort = "borrowingDate", direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(borrowService.findByPatron(patronId, pageable));
+    }
+
+    @GetMapping("/books/{bookId}/borrows")
+    public ResponseEntity<Page<BorrowRecord>> findByBook(
+            @PathVariable Integer bookId,
+            @PageableDefault(sort = "borrowingDate", direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(borrowService.findByBook(bookId, pageable));
+    }
+}
@@ -1,15 +1,50 @@
 package com.maids.libms.controller;
 
+import com.maids.libms.constant.CacheConstants;
+import com.maids.libms.dto.BulkImportReport;
+import com.maids.libms.dto.PatronView;
 import com.maids.libms.model.Patron;
+import com.maids.libms.service.BulkImportService;
 import com.maids.libms.service.PatronService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.InputStream;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/patrons")
 public class PatronController extends BaseController<Patron, Integer> {
-    
-    public PatronController(PatronService service) {
+    private final BulkImportService bulkImportService;
+
+    public PatronController(PatronService service, BulkImportService bulkImportService) {
         super(service);
+        this.bulkImportService = bulkImportService;
+    }
+
+    @Override
+    protected String responseCacheName() {
+        return CacheConstants.PATRON_RESPONSE_CACHE;
+    }
+
+    @Override
+    protected Class<PatronView> viewType() {
+        return PatronView.class;
+    }
+
+    @Override
+    protected Set<String> keysetSortProperties() {
+        return Set.of("id", "email", "name");
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<BulkImportReport> bulkImport(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                       InputStream body) {
+        return ResponseEntity.ok(bulkImportService.importRows(PatronService.BULK_IMPORT_TARGET, contentType, body));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package com.maids.libms.dto;
+
+/**
+ * Read-only listing view of a {@link com.maids.libms.model.Book}, loaded with a constructor
+ * expression so no managed entity, snapshot or association collection is created. Serializes
+ * to the same JSON as the entity.
+ */
+public record BookView(Integer id, String isbn, String title, String author, String description,
+                       Integer publicationYear) {
+}
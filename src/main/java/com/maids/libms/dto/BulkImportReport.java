@@ -0,0 +1,30 @@
+package com.maids.libms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportReport {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    /** Rejected rows, in input order; capped, see {@link #errorsTruncated}. */
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        /** 1-based position of the record in the input, not counting a CSV header. */
+        private long row;
+        private String message;
+    }
+}
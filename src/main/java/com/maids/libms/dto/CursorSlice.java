@@ -0,0 +1,21 @@
+package com.maids.libms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset walk. There is no total count; pass {@code nextCursor} as
+ * {@code after} to get the following slice, until {@code hasNext} is {@code false}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorSlice<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -12,7 +12,11 @@ import java.io.Serializable;
 @Getter @Setter
 @MappedSuperclass
 public abstract class BaseModel<T extends Serializable> {
+    /**
+     * Allocated from the {@code <table>_seq} sequence in blocks of 50 (Hibernate's pooled
+     * optimizer), so inserts need no round trip for the id and can be batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     protected T id;
 }
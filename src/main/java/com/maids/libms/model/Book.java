@@ -40,5 +40,6 @@ public class Book extends BaseModel<Integer> {
 
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "book")
     @JsonIgnore
+    @ToString.Exclude @EqualsAndHashCode.Exclude
     private Set<BorrowRecord> borrowRecords = new HashSet<>();
 }
@@ -22,11 +22,19 @@ public class BorrowRecord extends BaseModel<Integer> {
     @Column
     private LocalDateTime returnDate;
 
+    /**
+     * Lazy so listings do not load patrons and books one row at a time; queries that return
+     * borrow records to clients fetch both through an entity graph, see
+     * {@link com.maids.libms.repository.BorrowRecordRepository}. Left out of {@code toString},
+     * {@code equals} and {@code hashCode}, which may run after the transaction has ended.
+     */
     @JsonIgnoreProperties(value = "borrowRecords")
-    @ManyToOne @JoinColumn(name = "patron_id")
+    @ManyToOne(fetch = FetchType.LAZY) @JoinColumn(name = "patron_id")
+    @ToString.Exclude @EqualsAndHashCode.Exclude
     private Patron patron;
 
     @JsonIgnoreProperties(value = "borrowRecords")
-    @ManyToOne @JoinColumn(name = "book_id")
+    @ManyToOne(fetch = FetchType.LAZY) @JoinColumn(name = "book_id")
+    @ToString.Exclude @EqualsAndHashCode.Exclude
     private Book book;
 }
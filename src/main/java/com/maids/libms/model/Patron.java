@@ -47,5 +47,6 @@ public class Patron extends BaseModel<Integer> {
 
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "patron")
     @JsonIgnore
+    @ToString.Exclude @EqualsAndHashCode.Exclude
     private Set<BorrowRecord> borrowRecords = new HashSet<>();
 }
@@ -0,0 +1,25 @@
+package com.maids.libms.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDateTime;
+
+@Entity @Table(name = "revoked_tokens")
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Getter @Setter
+@Builder @Accessors(chain = true)
+@NoArgsConstructor @AllArgsConstructor
+public class RevokedToken extends BaseModel<Integer> {
+    @NotBlank
+    @Column(unique = true)
+    private String tokenKey;
+
+    @NotNull
+    @Column
+    private LocalDateTime expiresAt;
+}
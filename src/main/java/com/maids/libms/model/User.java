@@ -8,12 +8,16 @@ import lombok.EqualsAndHashCode;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.AfterDomainEventPublication;
+import org.springframework.data.domain.DomainEvents;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 @Entity
 @Table(name = "users")
@@ -34,6 +38,50 @@ public class User extends BaseModel<Integer> implements UserDetails {
     @Column
     private Role role;
 
+    /** Incremented whenever the password or role changes; carried by access tokens as the "ver" claim. */
+    @Column
+    private Integer tokenVersion;
+
+    /** Token version invalidated by a pending credential change, published with the next save. */
+    @Transient
+    @ToString.Exclude @EqualsAndHashCode.Exclude
+    private Integer revokedTokenVersion;
+
+    public void setPassword(String password) {
+        if (!Objects.equals(this.password, password)) {
+            credentialsChanged();
+        }
+        this.password = password;
+    }
+
+    public void setRole(Role role) {
+        if (this.role != role) {
+            credentialsChanged();
+        }
+        this.role = role;
+    }
+
+    public int currentTokenVersion() {
+        return tokenVersion == null ? 0 : tokenVersion;
+    }
+
+    private void credentialsChanged() {
+        if (getId() != null && revokedTokenVersion == null) {
+            revokedTokenVersion = currentTokenVersion();
+            tokenVersion = revokedTokenVersion + 1;
+        }
+    }
+
+    @DomainEvents
+    Collection<UserChangedEvent> domainEvents() {
+        return List.of(new UserChangedEvent(email, revokedTokenVersion));
+    }
+
+    @AfterDomainEventPublication
+    void clearRevokedTokenVersion() {
+        revokedTokenVersion = null;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority(role.name()));
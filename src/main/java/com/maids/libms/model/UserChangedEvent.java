@@ -0,0 +1,9 @@
+package com.maids.libms.model;
+
+/**
+ * Published whenever a {@link User} is saved or deleted, so anything caching the user's
+ * credentials or role can drop its copy. {@code revokedTokenVersion} is set when the save
+ * changed the password or role, and names the token version that is no longer valid.
+ */
+public record UserChangedEvent(String email, Integer revokedTokenVersion) {
+}
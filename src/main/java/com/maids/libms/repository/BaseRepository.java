@@ -1,11 +1,44 @@
 package com.maids.libms.repository;
 
 import com.maids.libms.model.BaseModel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.stream.Stream;
 
 @NoRepositoryBean
-public interface BaseRepository<T extends BaseModel<Id>, Id extends Serializable> extends JpaRepository<T, Id> {
+public interface BaseRepository<T extends BaseModel<Id>, Id extends Serializable> extends JpaRepository<T, Id>, JpaSpecificationExecutor<T> {
+    int STREAM_FETCH_SIZE = 500;
+
+    @Query("select e.id from #{#entityName} e")
+    @Transactional(readOnly = true)
+    List<Id> findAllIds();
+
+    /**
+     * A page of {@code type} projections; for a record or class this is a constructor-expression
+     * query that selects only its properties and creates no managed entities.
+     */
+    @Transactional(readOnly = true)
+    <P> Page<P> findAllBy(Pageable pageable, Class<P> type);
+
+    /**
+     * All entities in id order, read through a forward-only cursor {@value #STREAM_FETCH_SIZE}
+     * rows at a time. Must be consumed inside a transaction and closed.
+     */
+    @Query("select e from #{#entityName} e order by e.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<T> streamAll();
 }
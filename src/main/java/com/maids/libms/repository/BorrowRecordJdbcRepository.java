@@ -0,0 +1,77 @@
+package com.maids.libms.repository;
+
+import com.maids.libms.model.BorrowRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Borrow and return as single statements on ids, without loading the book, patron or borrow
+ * record first. The returned records carry ids and dates only; callers attach the book and
+ * patron. Uses Postgres {@code RETURNING}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BorrowRecordJdbcRepository {
+    private static final String SEQUENCE = "borrow_records_seq";
+
+    private static final String BORROW = """
+            INSERT INTO borrow_records (id, book_id, patron_id, borrowing_date)
+            SELECT :id, b.id, p.id, :borrowingDate
+            FROM books b JOIN patrons p ON p.id = :patronId
+            WHERE b.id = :bookId
+              AND NOT EXISTS (SELECT 1 FROM borrow_records br
+                              WHERE br.book_id = :bookId AND br.return_date IS NULL)
+            """;
+
+    private static final String RETURN = """
+            UPDATE borrow_records SET return_date = :returnDate
+            WHERE book_id = :bookId AND patron_id = :patronId AND return_date IS NULL
+            RETURNING id, borrowing_date
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator idAllocator;
+
+    /**
+     * Inserts an open borrow unless the book or patron does not exist or the book is already
+     * borrowed, in which case nothing is written and the result is empty. Two concurrent
+     * borrows can both pass the {@code NOT EXISTS}; the loser fails on the unique index of open
+     * borrows with a {@link org.springframework.dao.DuplicateKeyException}.
+     */
+    public Optional<BorrowRecord> borrow(Integer bookId, Integer patronId, LocalDateTime borrowingDate) {
+        int id = idAllocator.next(SEQUENCE);
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("bookId", bookId)
+                .addValue("patronId", patronId)
+                .addValue("borrowingDate", borrowingDate);
+        if (jdbcTemplate.update(BORROW, parameters) == 0) {
+            return Optional.empty();
+        }
+        BorrowRecord record = new BorrowRecord().setBorrowingDate(borrowingDate);
+        record.setId(id);
+        return Optional.of(record);
+    }
+
+    /**
+     * Closes the open borrow of the book by the patron, or returns empty if there is none.
+     */
+    public Optional<BorrowRecord> markReturned(Integer bookId, Integer patronId, LocalDateTime returnDate) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("bookId", bookId)
+                .addValue("patronId", patronId)
+                .addValue("returnDate", returnDate);
+        return jdbcTemplate.query(RETURN, parameters, (rs, rowNum) -> {
+            BorrowRecord record = new BorrowRecord()
+                    .setBorrowingDate(rs.getObject("borrowing_date", LocalDateTime.class))
+                    .setReturnDate(returnDate);
+            record.setId(rs.getInt("id"));
+            return record;
+        }).stream().findFirst();
+    }
+}
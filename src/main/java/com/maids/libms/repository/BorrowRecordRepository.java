@@ -1,17 +1,66 @@
 package com.maids.libms.repository;
 
 import com.maids.libms.model.BorrowRecord;
-import jakarta.persistence.LockModeType;
-import org.springframework.data.jpa.repository.Lock;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BorrowRecordRepository extends BaseRepository<BorrowRecord, Integer> {
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    /** Associations fetched with every borrow record returned to clients. */
+    String[] FETCHED_ASSOCIATIONS = {"book", "patron"};
+
+    @Override
+    @EntityGraph(attributePaths = {"book", "patron"})
+    Optional<BorrowRecord> findById(Integer id);
+
+    @Override
+    @EntityGraph(attributePaths = {"book", "patron"})
+    List<BorrowRecord> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"book", "patron"})
+    Page<BorrowRecord> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = {"book", "patron"})
+    List<BorrowRecord> findAllById(Iterable<Integer> ids);
+
+    @Override
+    @EntityGraph(attributePaths = {"book", "patron"})
+    @Query("select br from BorrowRecord br order by br.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<BorrowRecord> streamAll();
+
+    /**
+     * Borrow history of a patron; backed by the {@code (patron_id, borrowing_date)} index.
+     */
+    @EntityGraph(attributePaths = {"book", "patron"})
+    @Transactional(readOnly = true)
+    Page<BorrowRecord> findByPatronId(Integer patronId, Pageable pageable);
+
+    /**
+     * Borrow history of a book; backed by the {@code (book_id, borrowing_date)} index.
+     */
+    @EntityGraph(attributePaths = {"book", "patron"})
+    @Transactional(readOnly = true)
+    Page<BorrowRecord> findByBookId(Integer bookId, Pageable pageable);
+
     @Query("SELECT br FROM BorrowRecord br " +
             "WHERE br.book.id = :bookId AND br.returnDate IS NULL")
     Optional<BorrowRecord> findActiveBorrowByBookId(@Param("bookId") Integer bookId);
@@ -19,4 +68,14 @@ public interface BorrowRecordRepository extends BaseRepository<BorrowRecord, Int
     @Query("SELECT br FROM BorrowRecord br " +
             "WHERE br.book.id = :bookId AND br.patron.id = :patronId AND br.returnDate IS NULL")
     Optional<BorrowRecord> findActiveBorrow(@Param("bookId") Integer bookId, @Param("patronId") Integer patronId);
-}
\ No newline at end of file
+
+    @Query("SELECT br.book.id FROM BorrowRecord br " +
+            "WHERE br.borrowingDate >= :since GROUP BY br.book.id ORDER BY COUNT(br) DESC")
+    @Transactional(readOnly = true)
+    List<Integer> findMostBorrowedBookIds(@Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query("SELECT br.patron.id FROM BorrowRecord br " +
+            "WHERE br.borrowingDate >= :since GROUP BY br.patron.id ORDER BY COUNT(br) DESC")
+    @Transactional(readOnly = true)
+    List<Integer> findMostActivePatronIds(@Param("since") LocalDateTime since, Pageable pageable);
+}
@@ -0,0 +1,24 @@
+package com.maids.libms.repository;
+
+import com.maids.libms.model.RevokedToken;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends BaseRepository<RevokedToken, Integer> {
+    boolean existsByTokenKey(String tokenKey);
+
+    boolean existsByTokenKeyAndExpiresAtAfter(String tokenKey, LocalDateTime now);
+
+    @Query("SELECT rt.tokenKey FROM RevokedToken rt WHERE rt.expiresAt > :now")
+    List<String> findActiveTokenKeys(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken rt WHERE rt.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,71 @@
+package com.maids.libms.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out ids for rows inserted with plain SQL, the same way Hibernate's pooled optimizer
+ * does: each sequence value {@code v} owns the block {@code (v - 50, v]}, so these ids never
+ * collide with ones Hibernate allocates. Single ids are served from an in-memory block and
+ * cost a round trip only once per block.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SequenceIdAllocator {
+    /** Must match the sequence increment, see {@link com.maids.libms.model.BaseModel}. */
+    public static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public int next(String sequence) {
+        return blocks.computeIfAbsent(sequence, Block::new).next();
+    }
+
+    /**
+     * Takes {@code count} fresh ids with a single query, for bulk writes.
+     */
+    public List<Integer> next(String sequence, int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        int blockCount = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+        for (long value : nextValues(sequence, blockCount)) {
+            for (long id = firstIdOf(value); id <= value && ids.size() < count; id++) {
+                ids.add((int) id);
+            }
+        }
+        return ids;
+    }
+
+    private List<Long> nextValues(String sequence, int count) {
+        return jdbcTemplate.queryForList(
+                "select nextval('" + sequence + "') from generate_series(1, ?)", Long.class, count);
+    }
+
+    private static long firstIdOf(long value) {
+        return Math.max(1, value - ALLOCATION_SIZE + 1);
+    }
+
+    private final class Block {
+        private final String sequence;
+        private long next = 1;
+        private long last;
+
+        Block(String sequence) {
+            this.sequence = sequence;
+        }
+
+        synchronized int next() {
+            if (next > last) {
+                last = nextValues(sequence, 1).get(0);
+                next = firstIdOf(last);
+            }
+            return (int) next++;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.maids.libms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.maids.libms.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Sliding-window limiter for the login and register endpoints, applied per email and per
+ * client IP before any password hashing happens. Each key keeps the count of the current and
+ * previous fixed window and weights the previous one by how much of it still overlaps the
+ * sliding window, which approximates a true sliding log in constant memory per key.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthRateLimiter {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${application.security.auth-rate-limit.window-seconds:60}")
+    private long windowSeconds;
+
+    @Value("${application.security.auth-rate-limit.max-per-email:10}")
+    private int maxPerEmail;
+
+    @Value("${application.security.auth-rate-limit.max-per-ip:100}")
+    private int maxPerIp;
+
+    @Value("${application.security.auth-rate-limit.max-keys:100000}")
+    private long maxKeys;
+
+    private Cache<String, SlidingWindow> windows;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void init() {
+        windows = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofSeconds(windowSeconds * 2))
+                .build();
+        rejectedCounter = Counter.builder("auth.rate-limit.rejected")
+                .description("Authentication attempts rejected by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    public void acquire(String email, String clientIp) {
+        boolean allowed = tryAcquire("email:" + email.toLowerCase(Locale.ROOT), maxPerEmail)
+                && tryAcquire("ip:" + clientIp, maxPerIp);
+        if (!allowed) {
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Too many authentication attempts, please retry later");
+        }
+    }
+
+    private boolean tryAcquire(String key, int limit) {
+        SlidingWindow window = windows.get(key, k -> new SlidingWindow());
+        return window.tryAcquire(limit, windowSeconds * 1000, System.currentTimeMillis());
+    }
+
+    private static final class SlidingWindow {
+        private long windowStart;
+        private int previousCount;
+        private int currentCount;
+
+        synchronized boolean tryAcquire(int limit, long windowMillis, long now) {
+            long elapsedWindows = (now - windowStart) / windowMillis;
+            if (elapsedWindows >= 1) {
+                previousCount = elapsedWindows == 1 ? currentCount : 0;
+                currentCount = 0;
+                windowStart += elapsedWindows * windowMillis;
+            }
+            double previousWeight = 1.0 - (double) (now - windowStart) / windowMillis;
+            if (previousCount * previousWeight + currentCount >= limit) {
+                return false;
+            }
+            currentCount++;
+            return true;
+        }
+    }
+}
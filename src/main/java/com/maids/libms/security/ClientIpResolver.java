@@ -0,0 +1,70 @@
+package com.maids.libms.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the address of the client behind the gateway. {@code X-Forwarded-For} is only read
+ * when the request comes from a trusted proxy, and then from right to left: the first address
+ * not added by a trusted proxy is the client. Entries further left are supplied by the client
+ * itself and are never used, so a client cannot pick its own rate-limit key.
+ */
+@Component
+public class ClientIpResolver {
+    static final String FORWARDED_FOR = "X-Forwarded-For";
+    private static final Pattern IP_LITERAL = Pattern.compile("[0-9.]+|[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    /** Addresses or CIDR ranges of the gateway; empty means no proxy is trusted. */
+    @Value("${application.security.trusted-proxies:}")
+    private List<String> trustedProxies;
+
+    private List<IpAddressMatcher> trustedMatchers;
+
+    @PostConstruct
+    void init() {
+        trustedMatchers = trustedProxies.stream()
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        String forwardedFor = request.getHeader(FORWARDED_FOR);
+        if (forwardedFor == null || !isTrusted(remoteAddr)) {
+            return remoteAddr;
+        }
+        String[] hops = forwardedFor.split(",");
+        String client = remoteAddr;
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                break;
+            }
+            client = hop;
+            if (!isTrusted(hop)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrusted(String address) {
+        // Only IP literals are matched, a host name would make IpAddressMatcher resolve it
+        if (address == null || !IP_LITERAL.matcher(address).matches()) {
+            return false;
+        }
+        try {
+            return trustedMatchers.stream().anyMatch(matcher -> matcher.matches(address));
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.maids.libms.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.maids.libms.model.Role;
+import com.maids.libms.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -12,26 +19,92 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
+    public static final String ROLE_CLAIM = "role";
+    public static final String VERSION_CLAIM = "ver";
+    /** Carried by access tokens: the id of the refresh token they were issued with. */
+    public static final String SESSION_CLAIM = "sid";
 
     @Value("${application.security.jwt.secret-key}")
     private String secretKey;
-    
+
     @Value("${application.security.jwt.expiration}")
     private long jwtExpiration;
-    
+
     @Value("${application.security.jwt.refresh-token.expiration}")
     private long refreshExpiration;
 
+    @Value("${application.security.jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    /** When enabled, access tokens carry the user's role and token version so requests need no user lookup. */
+    @Value("${application.security.jwt.stateless:false}")
+    private boolean statelessTokens;
+
+    private Key signInKey;
+    private JwtParser parser;
+
+    /**
+     * Tokens that already passed signature verification, each kept until its own expiration.
+     * The cached {@link Claims} are shared between requests and must be treated as read-only.
+     */
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Parses and verifies the token, returning its claims. A token is only parsed and
+     * HMAC-checked the first time it is seen; later calls are served from the verified-token cache.
+     */
+    public Claims verifyToken(String token) {
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && !isExpired(cached)) {
+            return cached;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(token, claims);
+        }
+        return claims;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verifyToken(token);
         return claimsResolver.apply(claims);
     }
 
@@ -40,47 +113,71 @@ public class JwtService {
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        if (statelessTokens && userDetails instanceof User user) {
+            claims.put(ROLE_CLAIM, user.getRole().name());
+            claims.put(VERSION_CLAIM, user.currentTokenVersion());
+        }
+        return buildToken(claims, userDetails, jwtExpiration);
     }
 
     public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+        return generateRefreshToken(userDetails, UUID.randomUUID().toString());
+    }
+
+    /**
+     * A refresh token whose "jti" is {@code sessionId}, so revoking the session revokes it too.
+     * It always carries the user's token version, which refreshing checks against the user.
+     */
+    public String generateRefreshToken(UserDetails userDetails, String sessionId) {
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            claims.put(VERSION_CLAIM, user.currentTokenVersion());
+        }
+        return buildToken(claims, userDetails, refreshExpiration, sessionId);
     }
 
     private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
+        return buildToken(extraClaims, userDetails, expiration, UUID.randomUUID().toString());
+    }
+
+    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration, String id) {
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
+                .setId(id)
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    /**
+     * Whether the request can be authenticated from the token alone, without loading the user.
+     */
+    public boolean isStatelessToken(Claims claims) {
+        return statelessTokens && claims.get(ROLE_CLAIM) != null && claims.get(VERSION_CLAIM) != null;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public User toPrincipal(Claims claims) {
+        return User.builder()
+                .email(claims.getSubject())
+                .role(Role.valueOf(claims.get(ROLE_CLAIM, String.class)))
+                .tokenVersion(claims.get(VERSION_CLAIM, Integer.class))
+                .build();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(verifyToken(token), userDetails);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return (username.equals(userDetails.getUsername())) && !isExpired(claims);
     }
 
-    private Key getSignInKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,135 @@
+package com.maids.libms.security;
+
+import com.maids.libms.model.RevokedToken;
+import com.maids.libms.model.UserChangedEvent;
+import com.maids.libms.repository.RevokedTokenRepository;
+import com.maids.libms.util.BloomFilter;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps revoked access tokens in the revoked_tokens table and mirrors them in an in-memory
+ * bloom filter, so the common case (a token that was never revoked) is answered without I/O.
+ * Only bloom filter hits are confirmed against the table. Tokens are revoked either per login
+ * session on logout (the refresh token's "jti", which access tokens carry as "sid"), one by one
+ * (by their "jti") or per user version when the user's password or role changes.
+ * <p>
+ * A revocation reaches the filters of other nodes only on their next {@link #refresh()}, so for
+ * up to {@code refresh-ms} (30 seconds by default) another node may still accept a token that
+ * was just revoked.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.001;
+    private static final long MIN_CAPACITY = 10_000;
+
+    private final RevokedTokenRepository repository;
+
+    @Value("${application.security.jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${application.security.jwt.refresh-token.expiration}")
+    private long refreshExpiration;
+
+    @Value("${application.security.jwt.revocation.refresh-ms:30000}")
+    private long refreshMillis;
+
+    private volatile BloomFilter revokedKeys;
+
+    /** Keys revoked on this node recently, re-added on refresh until the table snapshot surely contains them. */
+    private final Map<String, Long> recentRevocations = new ConcurrentHashMap<>();
+
+    public void revokeToken(Claims claims) {
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault());
+        revoke(tokenKey(claims.getId()), expiresAt);
+    }
+
+    /**
+     * Revokes the refresh token with id {@code sessionId} and every access token issued with it.
+     */
+    public void revokeSession(String sessionId) {
+        revoke(tokenKey(sessionId), LocalDateTime.now().plus(Duration.ofMillis(refreshExpiration)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.revokedTokenVersion() != null) {
+            revoke(versionKey(event.email(), event.revokedTokenVersion()),
+                    LocalDateTime.now().plus(Duration.ofMillis(jwtExpiration)));
+        }
+    }
+
+    public boolean isRevoked(Claims claims) {
+        if (claims.getId() != null && isRevoked(tokenKey(claims.getId()))) {
+            return true;
+        }
+        String sessionId = claims.get(JwtService.SESSION_CLAIM, String.class);
+        if (sessionId != null && isRevoked(tokenKey(sessionId))) {
+            return true;
+        }
+        Integer version = claims.get(JwtService.VERSION_CLAIM, Integer.class);
+        return version != null && isRevoked(versionKey(claims.getSubject(), version));
+    }
+
+    @Scheduled(fixedDelayString = "${application.security.jwt.revocation.refresh-ms:30000}")
+    @Transactional
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = repository.deleteExpired(now);
+        List<String> activeKeys = repository.findActiveTokenKeys(now);
+
+        BloomFilter filter = new BloomFilter(Math.max(MIN_CAPACITY, activeKeys.size() * 2L), FALSE_POSITIVE_PROBABILITY);
+        activeKeys.forEach(filter::put);
+        long cutoff = System.currentTimeMillis() - 2 * refreshMillis;
+        recentRevocations.entrySet().removeIf(entry -> entry.getValue() < cutoff);
+        recentRevocations.keySet().forEach(filter::put);
+        revokedKeys = filter;
+        log.debug("Revocation filter refreshed with {} keys, {} expired keys purged", activeKeys.size(), purged);
+    }
+
+    private boolean isRevoked(String key) {
+        BloomFilter filter = revokedKeys;
+        if (filter != null && !filter.mightContain(key)) {
+            return false;
+        }
+        return repository.existsByTokenKeyAndExpiresAtAfter(key, LocalDateTime.now());
+    }
+
+    private void revoke(String key, LocalDateTime expiresAt) {
+        recentRevocations.put(key, System.currentTimeMillis());
+        BloomFilter filter = revokedKeys;
+        if (filter != null) {
+            filter.put(key);
+        }
+        if (!repository.existsByTokenKey(key)) {
+            repository.save(RevokedToken.builder().tokenKey(key).expiresAt(expiresAt).build());
+        }
+        log.debug("Revoked token key {}", key);
+    }
+
+    private static String tokenKey(String tokenId) {
+        return "jti:" + tokenId;
+    }
+
+    private static String versionKey(String email, int version) {
+        return "ver:" + email + "#" + version;
+    }
+}
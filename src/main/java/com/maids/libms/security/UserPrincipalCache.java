@@ -0,0 +1,72 @@
+package com.maids.libms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.maids.libms.model.User;
+import com.maids.libms.model.UserChangedEvent;
+import com.maids.libms.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Bounded in-process cache of authenticated principals keyed by email, so the JWT filter
+ * does not query the users table on every request. Entries are dropped after the configured
+ * TTL or as soon as the user is saved or deleted.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalCache {
+    private static final Logger log = LoggerFactory.getLogger(UserPrincipalCache.class);
+
+    private final UserRepository repository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${application.security.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${application.security.principal-cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<String, User> principals;
+
+    @PostConstruct
+    void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "userPrincipals");
+    }
+
+    public User loadByEmail(String email) {
+        User user = principals.get(email, key -> repository.findByEmail(key).orElse(null));
+        if (user == null) {
+            throw new IllegalArgumentException("User not found");
+        }
+        return user;
+    }
+
+    public void invalidate(String email) {
+        log.debug("Invalidating cached principal {}", email);
+        principals.invalidate(email);
+    }
+
+    public void invalidateAll() {
+        principals.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.email());
+    }
+}
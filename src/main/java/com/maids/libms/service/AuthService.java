@@ -6,6 +6,8 @@ import com.maids.libms.model.Role;
 import com.maids.libms.model.User;
 import com.maids.libms.repository.UserRepository;
 import com.maids.libms.security.JwtService;
+import com.maids.libms.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -13,6 +15,9 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.UUID;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -20,6 +25,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationService revocationService;
 
     public AuthResponse register(AuthRequest request) {
         var user = User.builder()
@@ -28,12 +34,7 @@ public class AuthService {
                 .role(Role.ROLE_USER)
                 .build();
         repository.save(user);
-        var jwtToken = jwtService.generateToken(user);
-        var refreshToken = jwtService.generateRefreshToken(user);
-        return AuthResponse.builder()
-                .accessToken(jwtToken)
-                .refreshToken(refreshToken)
-                .build();
+        return issueTokens(user);
     }
 
     public AuthResponse login(AuthRequest request) {
@@ -46,26 +47,40 @@ public class AuthService {
         var user = repository.findByEmail(request.getEmail());
         if (user.isEmpty())
             throw new UsernameNotFoundException("email is not found.");
-        var jwtToken = jwtService.generateToken(user.get());
-        var refreshToken = jwtService.generateRefreshToken(user.get());
+        return issueTokens(user.get());
+    }
+
+    /**
+     * Starts a login session: the refresh token's id is the session id, and every access token
+     * issued for the session carries it, so logout can revoke all of them at once.
+     */
+    private AuthResponse issueTokens(User user) {
+        String sessionId = UUID.randomUUID().toString();
         return AuthResponse.builder()
-                .accessToken(jwtToken)
-                .refreshToken(refreshToken)
+                .accessToken(jwtService.generateToken(Map.of(JwtService.SESSION_CLAIM, sessionId), user))
+                .refreshToken(jwtService.generateRefreshToken(user, sessionId))
                 .build();
     }
 
+    /**
+     * Issues a new access token for the refresh token's session. The refresh token is refused
+     * once its session was logged out or the user's password or role changed since it was issued.
+     */
     public AuthResponse refreshToken(String refreshToken) {
         if (refreshToken == null || !refreshToken.startsWith("Bearer ")) {
             throw new IllegalArgumentException("Invalid refresh token");
         }
         refreshToken = refreshToken.substring(7);
-        String userEmail = jwtService.extractUsername(refreshToken);
-        if (userEmail != null) {
-            var user = repository.findByEmail(userEmail);
+        Claims claims = jwtService.verifyToken(refreshToken);
+        if (claims.getSubject() != null && claims.get(JwtService.SESSION_CLAIM) == null) {
+            var user = repository.findByEmail(claims.getSubject());
             if (user.isEmpty())
                 throw new IllegalArgumentException("email extracted from refresh token is not found.");
-            if (jwtService.isTokenValid(refreshToken, user.get())) {
-                var accessToken = jwtService.generateToken(user.get());
+            Integer version = claims.get(JwtService.VERSION_CLAIM, Integer.class);
+            if (jwtService.isTokenValid(claims, user.get())
+                    && (version == null || version == user.get().currentTokenVersion())
+                    && !revocationService.isRevoked(claims)) {
+                var accessToken = jwtService.generateToken(Map.of(JwtService.SESSION_CLAIM, claims.getId()), user.get());
                 return AuthResponse.builder()
                         .accessToken(accessToken)
                         .refreshToken(refreshToken)
@@ -74,4 +89,22 @@ public class AuthService {
         }
         throw new IllegalArgumentException("Invalid refresh token");
     }
-} 
\ No newline at end of file
+
+    /**
+     * Revokes the access token and, through its session, the refresh token it was issued with.
+     * Other nodes keep accepting them until their next revocation filter refresh, see
+     * {@link TokenRevocationService}.
+     */
+    public String logout(String accessToken) {
+        if (accessToken == null || !accessToken.startsWith("Bearer ")) {
+            throw new IllegalArgumentException("Invalid access token");
+        }
+        Claims claims = jwtService.verifyToken(accessToken.substring(7));
+        revocationService.revokeToken(claims);
+        String sessionId = claims.get(JwtService.SESSION_CLAIM, String.class);
+        if (sessionId != null) {
+            revocationService.revokeSession(sessionId);
+        }
+        return "Done.";
+    }
+}
@@ -1,60 +1,386 @@
 package com.maids.libms.service;
 
+import com.maids.libms.cache.CacheBulkOperations;
+import com.maids.libms.cache.NegativeLookupCache;
+import com.maids.libms.cache.PageCache;
+import com.maids.libms.cache.ResponseBodyCache;
+import com.maids.libms.config.ReplicaRoutingDataSource;
 import com.maids.libms.model.BaseModel;
 import com.maids.libms.repository.BaseRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.GenericTypeResolver;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public abstract class BaseService<Entity extends BaseModel<Id>, Id extends Serializable> {
     protected final BaseRepository<Entity, Id> repository;
     private final Logger log = LoggerFactory.getLogger(this.getClass());
+    private NegativeLookupCache negativeLookupCache;
+    private PageCache pageCache;
+    private CacheBulkOperations bulkOperations;
+    private ResponseBodyCache responseBodyCache;
+    private boolean readsMayLag;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public BaseService(BaseRepository<Entity, Id> repository) {
         this.repository = repository;
     }
 
+    @Autowired(required = false)
+    public void setNegativeLookupCache(NegativeLookupCache negativeLookupCache) {
+        this.negativeLookupCache = negativeLookupCache;
+        if (cacheName() != null) {
+            negativeLookupCache.track(cacheName(), repository::findAllIds);
+        }
+    }
+
+    @Autowired(required = false)
+    public void setPageCache(PageCache pageCache) {
+        this.pageCache = pageCache;
+    }
+
+    @Autowired(required = false)
+    public void setBulkOperations(CacheBulkOperations bulkOperations) {
+        this.bulkOperations = bulkOperations;
+    }
+
+    @Autowired(required = false)
+    public void setResponseBodyCache(ResponseBodyCache responseBodyCache) {
+        this.responseBodyCache = responseBodyCache;
+    }
+
+    /**
+     * With read replicas, a read-only lookup may miss an entity the replica has not replayed yet,
+     * so such misses are not remembered as missing ids.
+     */
+    @Autowired(required = false)
+    public void setReplicaRoutingDataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        this.readsMayLag = true;
+    }
+
+    /**
+     * Name of the cache holding this service's entities, or {@code null} if they are not cached.
+     * Cached services also get negative caching of ids that do not exist.
+     */
+    protected String cacheName() {
+        return null;
+    }
+
+    /**
+     * Name of the cache holding serialized responses of single entities, or {@code null} if
+     * there is none. Updates store the new body there once committed; deletes must evict it.
+     */
+    protected String responseCacheName() {
+        return null;
+    }
+
+    /**
+     * Name of the cache holding pages of {@link #findAll(Pageable)}, or {@code null} if pages are
+     * not cached. Every create, update and delete invalidates all cached pages.
+     */
+    protected String pageCacheName() {
+        return null;
+    }
+
+    @Transactional(readOnly = true)
     public Entity findById(Id id) {
-        log.debug("Fetching entity with id {} from database", id);
         String message = "Resource: " + this.getClass().getSimpleName() + " with id " + id + " does not exist";
+        if (tracksMissingIds() && negativeLookupCache.isKnownMissing(cacheName(), id)) {
+            log.debug("Entity with id {} is known to be missing", id);
+            throw new EntityNotFoundException(message);
+        }
+        log.debug("Fetching entity with id {} from database", id);
         return repository.findById(id)
                 .orElseThrow(() -> {
                     log.error("Entity not found: {}", message);
+                    if (tracksMissingIds()
+                            && !(readsMayLag && TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+                        negativeLookupCache.recordMissing(cacheName(), id);
+                    }
                     return new EntityNotFoundException(message);
                 });
     }
 
+    /**
+     * Returns the entities with the given ids in request order, skipping ids that do not exist.
+     * Cached services resolve all ids with one cache multi-get, load only the misses with a
+     * single {@code IN} query and backfill the cache with them.
+     */
+    @SuppressWarnings("unchecked")
+    @Transactional(readOnly = true)
+    public List<Entity> findAllById(List<Id> ids) {
+        List<Id> distinctIds = ids.stream().distinct().toList();
+        Map<Id, Entity> found = new HashMap<>();
+        boolean cached = bulkOperations != null && cacheName() != null;
+        if (cached) {
+            bulkOperations.getAll(cacheName(), distinctIds)
+                    .forEach((id, entity) -> found.put((Id) id, (Entity) entity));
+        }
+        List<Id> misses = distinctIds.stream()
+                .filter(id -> !found.containsKey(id))
+                .filter(id -> !tracksMissingIds()
+                        || negativeLookupCache.presence(cacheName()).mightContain(String.valueOf(id)))
+                .toList();
+        if (!misses.isEmpty()) {
+            log.debug("Fetching {} of {} entities from database", misses.size(), distinctIds.size());
+            Map<Id, Entity> loaded = new HashMap<>();
+            repository.findAllById(misses).forEach(entity -> loaded.put(entity.getId(), entity));
+            found.putAll(loaded);
+            if (cached) {
+                bulkOperations.putAll(cacheName(), loaded);
+            }
+        }
+        return distinctIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
     public List<Entity> findAll() {
         log.debug("Fetching all entities from database");
         return repository.findAll();
     }
 
+    /**
+     * Passes every entity to {@code action} in id order without collecting them. Rows are read
+     * through a database cursor and each entity is detached once handled, so memory stays flat
+     * however large the table is.
+     */
+    @Transactional(readOnly = true)
+    public void forEach(Consumer<? super Entity> action) {
+        log.debug("Streaming all entities from database");
+        try (Stream<Entity> entities = repository.streamAll()) {
+            entities.forEach(entity -> {
+                action.accept(entity);
+                entityManager.detach(entity);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Page<Entity> findAll(Pageable pageable) {
+        if (pageCache != null && pageCacheName() != null) {
+            return pageCache.get(pageCacheName(), pageable, () -> loadPage(pageable));
+        }
+        return loadPage(pageable);
+    }
+
+    private Page<Entity> loadPage(Pageable pageable) {
         log.debug("Fetching paginated entities from database");
         return repository.findAll(pageable);
     }
 
+    /**
+     * Like {@link #findAll(Pageable)} but returns read-only {@code viewType} projections built by
+     * a constructor-expression query, so listing a page creates no managed entities. Pages are
+     * cached like entity pages, keyed by view type as well.
+     */
+    @Transactional(readOnly = true)
+    public <V> Page<V> findAll(Pageable pageable, Class<V> viewType) {
+        if (pageCache != null && pageCacheName() != null) {
+            return pageCache.get(pageCacheName(), viewType.getName(), pageable,
+                    () -> loadViewPage(pageable, viewType));
+        }
+        return loadViewPage(pageable, viewType);
+    }
+
+    private <V> Page<V> loadViewPage(Pageable pageable, Class<V> viewType) {
+        log.debug("Fetching paginated {} from database", viewType.getSimpleName());
+        return repository.findAllBy(pageable, viewType);
+    }
+
+    /**
+     * A page holding only the requested entity attributes, in request order. Only those columns
+     * are selected; the count query runs only when the page size does not already tell the
+     * total. Not cached, since every field combination would be a separate entry.
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> findAll(Pageable pageable, List<String> fields) {
+        log.debug("Fetching paginated {} of entities from database", fields);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Entity> root = query.from(entityType());
+        query.multiselect(fields.stream().<Selection<?>>map(field -> root.get(field).alias(field)).toList());
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        List<Map<String, Object>> content = typedQuery.getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    fields.forEach(field -> row.put(field, tuple.get(field)));
+                    return row;
+                })
+                .toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(builder));
+    }
+
+    private long count(CriteriaBuilder builder) {
+        CriteriaQuery<Long> countQuery = builder.createQuery(Long.class);
+        countQuery.select(builder.count(countQuery.from(entityType())));
+        return entityManager.createQuery(countQuery).getSingleResult();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<Entity> entityType() {
+        return (Class<Entity>) GenericTypeResolver.resolveTypeArguments(getClass(), BaseService.class)[0];
+    }
+
+    /**
+     * Returns up to {@code size} entities after the row identified by {@code keys}, in
+     * {@code sort} order with the id as tie-breaker. The query seeks on the sort keys instead of
+     * skipping an offset and runs no count, so every slice costs the same however deep it is.
+     * Empty {@code keys} start from the first row.
+     */
+    @Transactional(readOnly = true)
+    public Window<Entity> findAfter(Sort sort, Map<String, Object> keys, int size) {
+        log.debug("Fetching {} entities after {} ordered by {}", size, keys, sort);
+        ScrollPosition position = keys.isEmpty() ? ScrollPosition.keyset() : ScrollPosition.forward(keys);
+        // Fetch joins rather than FluentQuery.project: scrolling ignores projected properties.
+        Specification<Entity> allWithAssociations = (root, query, builder) -> {
+            fetchedAssociations().forEach(association -> root.fetch(association, JoinType.LEFT));
+            return null;
+        };
+        return repository.findBy(allWithAssociations, query -> query.sortBy(sort).limit(size).scroll(position));
+    }
+
+    /**
+     * Lazy associations loaded together with the entities of {@link #findAfter}, so serializing
+     * a slice does not load them row by row.
+     */
+    protected List<String> fetchedAssociations() {
+        return List.of();
+    }
+
+    @Transactional
     public Entity create(Entity resource) {
         log.debug("Creating new entity: {}", resource);
-        return repository.save(resource);
+        Entity created = repository.save(resource);
+        afterCommit(() -> {
+            if (tracksMissingIds()) {
+                negativeLookupCache.recordCreated(cacheName(), created.getId());
+            }
+            invalidatePages();
+        });
+        return created;
+    }
+
+    /**
+     * Inserts all {@code resources} in one transaction. Ids come from the pooled sequence, so
+     * Hibernate sends the inserts as JDBC batches instead of one round trip per row. The entities
+     * reach the caches only once the transaction committed, since the inserts are sent at flush.
+     */
+    @Transactional
+    public List<Entity> createAll(List<Entity> resources) {
+        log.debug("Creating {} entities", resources.size());
+        List<Entity> created = repository.saveAll(resources);
+        afterCommit(() -> {
+            if (tracksMissingIds()) {
+                created.forEach(entity -> negativeLookupCache.recordCreated(cacheName(), entity.getId()));
+            }
+            if (bulkOperations != null && cacheName() != null) {
+                Map<Id, Entity> byId = new HashMap<>();
+                created.forEach(entity -> byId.put(entity.getId(), entity));
+                bulkOperations.putAllCreated(cacheName(), byId);
+            }
+            invalidatePages();
+        });
+        return created;
     }
 
+    @Transactional
     public String delete(Id id) {
         log.debug("Deleting entity with id: {}", id);
         Entity resource = findById(id);
         repository.delete(resource);
+        afterCommit(() -> {
+            if (tracksMissingIds()) {
+                negativeLookupCache.recordMissing(cacheName(), id);
+            }
+            invalidatePages();
+        });
         log.info("Entity with id {} deleted successfully", id);
         return "Done.";
     }
 
+    @Transactional
     public Entity update(Id id, Entity resource) {
         log.debug("Updating entity with id: {}", id);
         Entity existingEntity = findById(id);
         resource.setId(id);
-        return repository.save(resource);
+        Entity updated = repository.save(resource);
+        afterCommit(() -> {
+            if (responseBodyCache != null && responseCacheName() != null) {
+                responseBodyCache.put(responseCacheName(), id, updated);
+            }
+            invalidatePages();
+        });
+        return updated;
+    }
+
+    /**
+     * Runs {@code action} once the current transaction has committed, or right away outside a
+     * transaction. Cache updates go through here: made before the commit, a concurrent reader
+     * could cache rows that do not include the change yet, or a rollback would leave the caches
+     * describing rows that never existed.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void invalidatePages() {
+        if (pageCache != null && pageCacheName() != null) {
+            pageCache.bump(pageCacheName());
+        }
+    }
+
+    private boolean tracksMissingIds() {
+        return negativeLookupCache != null && cacheName() != null;
     }
-}
\ No newline at end of file
+}
@@ -8,15 +8,40 @@ import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Service
 public class BookService extends BaseService<Book, Integer> {
+    public static final BulkImportTarget<Book> BULK_IMPORT_TARGET = new BulkImportTarget<>(
+            Book.class, "books", "books_seq",
+            List.of("isbn", "title", "author", "description", "publication_year"),
+            book -> Arrays.asList(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getDescription(),
+                    book.getPublicationYear()),
+            "isbn", Book::getIsbn,
+            CacheConstants.BOOK_CACHE, CacheConstants.BOOK_PAGE_CACHE);
     
     public BookService(BookRepository repository) {
         super(repository);
     }
 
     @Override
-    @Cacheable(value = CacheConstants.BOOK_CACHE, key = "#id", unless = "#result == null")
+    protected String cacheName() {
+        return CacheConstants.BOOK_CACHE;
+    }
+
+    @Override
+    protected String responseCacheName() {
+        return CacheConstants.BOOK_RESPONSE_CACHE;
+    }
+
+    @Override
+    protected String pageCacheName() {
+        return CacheConstants.BOOK_PAGE_CACHE;
+    }
+
+    @Override
+    @Cacheable(value = CacheConstants.BOOK_CACHE, key = "#id", sync = true)
     public Book findById(Integer id) {
         return super.findById(id);
     }
@@ -28,7 +53,7 @@ public class BookService extends BaseService<Book, Integer> {
     }
 
     @Override
-    @CacheEvict(value = CacheConstants.BOOK_CACHE, key = "#id")
+    @CacheEvict(value = {CacheConstants.BOOK_CACHE, CacheConstants.BOOK_RESPONSE_CACHE}, key = "#id")
     public String delete(Integer id) {
         return super.delete(id);
     }
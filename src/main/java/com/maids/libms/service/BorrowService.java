@@ -1,57 +1,88 @@
 package com.maids.libms.service;
 
-import com.maids.libms.model.Book;
 import com.maids.libms.model.BorrowRecord;
-import com.maids.libms.model.Patron;
+import com.maids.libms.repository.BorrowRecordJdbcRepository;
 import com.maids.libms.repository.BorrowRecordRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 public class BorrowService extends BaseService<BorrowRecord, Integer> {
     private final BookService bookService;
     private final PatronService patronService;
     private final BorrowRecordRepository borrowRecordRepository;
+    private final BorrowRecordJdbcRepository borrowRecordJdbcRepository;
 
     public BorrowService(
             BorrowRecordRepository repository,
+            BorrowRecordJdbcRepository borrowRecordJdbcRepository,
             BookService bookService,
             PatronService patronService) {
         super(repository);
         this.borrowRecordRepository = repository;
+        this.borrowRecordJdbcRepository = borrowRecordJdbcRepository;
         this.bookService = bookService;
         this.patronService = patronService;
     }
 
-    @Transactional
+    /**
+     * Borrows with a single conditional insert. The book and patron for the response come from
+     * their caches; only when nothing was inserted are they looked up to tell a missing book or
+     * patron (404) from a book that is already borrowed (409).
+     */
     public BorrowRecord borrowBook(Integer bookId, Integer patronId) {
-        // Fetch entities within the transaction
-        Book book = bookService.findById(bookId);
-        Patron patron = patronService.findById(patronId);
-
-        // Check for active borrow using optimized query
-        borrowRecordRepository.findActiveBorrowByBookId(bookId)
-                .ifPresent(record -> {
-                    throw new IllegalStateException("Book is already borrowed");
-                });
-
-        BorrowRecord borrowRecord = new BorrowRecord()
-                .setBook(book)
-                .setPatron(patron)
-                .setBorrowingDate(LocalDateTime.now());
-
-        return borrowRecordRepository.save(borrowRecord);
+        BorrowRecord borrowRecord;
+        try {
+            borrowRecord = borrowRecordJdbcRepository.borrow(bookId, patronId, LocalDateTime.now())
+                    .orElse(null);
+        } catch (DuplicateKeyException ex) {
+            // Lost the race for the unique index on open borrows
+            throw new IllegalStateException("Book is already borrowed");
+        }
+        if (borrowRecord == null) {
+            bookService.findById(bookId);
+            patronService.findById(patronId);
+            throw new IllegalStateException("Book is already borrowed");
+        }
+        return withReferences(borrowRecord, bookId, patronId);
     }
 
-    @Transactional
+    /**
+     * Returns with a single update of the open borrow.
+     */
     public BorrowRecord returnBook(Integer bookId, Integer patronId) {
-        BorrowRecord borrowRecord = borrowRecordRepository.findActiveBorrow(bookId, patronId)
+        BorrowRecord borrowRecord = borrowRecordJdbcRepository.markReturned(bookId, patronId, LocalDateTime.now())
                 .orElseThrow(() -> new EntityNotFoundException("No active borrow record found"));
+        return withReferences(borrowRecord, bookId, patronId);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BorrowRecord> findByPatron(Integer patronId, Pageable pageable) {
+        patronService.findById(patronId);
+        return borrowRecordRepository.findByPatronId(patronId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BorrowRecord> findByBook(Integer bookId, Pageable pageable) {
+        bookService.findById(bookId);
+        return borrowRecordRepository.findByBookId(bookId, pageable);
+    }
+
+    @Override
+    protected List<String> fetchedAssociations() {
+        return List.of(BorrowRecordRepository.FETCHED_ASSOCIATIONS);
+    }
 
-        borrowRecord.setReturnDate(LocalDateTime.now());
-        return borrowRecordRepository.save(borrowRecord);
+    private BorrowRecord withReferences(BorrowRecord borrowRecord, Integer bookId, Integer patronId) {
+        return borrowRecord
+                .setBook(bookService.findById(bookId))
+                .setPatron(patronService.findById(patronId));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package com.maids.libms.service;
+
+import com.maids.libms.dto.BulkImportReport.RowError;
+import com.maids.libms.model.BaseModel;
+import com.maids.libms.repository.SequenceIdAllocator;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes one chunk of validated rows with Postgres {@code COPY ... FROM STDIN}, in its own
+ * transaction. Rows whose unique value already exists are rejected up front; if the database
+ * still refuses the chunk (for example a concurrent insert of the same value), every row of
+ * the chunk is reported as failed and nothing of it is written.
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkCopyWriter {
+    private static final Logger log = LoggerFactory.getLogger(BulkCopyWriter.class);
+
+    private final DataSource dataSource;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SequenceIdAllocator idAllocator;
+
+    /**
+     * Inserts {@code rows}, assigning ids to the entities that were written, and returns the
+     * rows that were rejected.
+     */
+    public <T extends BaseModel<Integer>> List<RowError> write(BulkImportTarget<T> target,
+                                                               List<BulkImportTarget.Row<T>> rows) {
+        List<RowError> errors = new ArrayList<>();
+        Set<String> existing = existingUniqueValues(target, rows);
+        List<BulkImportTarget.Row<T>> accepted = new ArrayList<>();
+        for (BulkImportTarget.Row<T> row : rows) {
+            if (existing.contains(target.uniqueValue().apply(row.entity()))) {
+                errors.add(new RowError(row.number(), target.uniqueColumn() + " already exists"));
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return errors;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> copy(target, accepted));
+        } catch (DataAccessException ex) {
+            String message = "Rejected by the database: " + NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+            log.warn("COPY into {} failed for rows {}-{}", target.table(),
+                    accepted.get(0).number(), accepted.get(accepted.size() - 1).number(), ex);
+            for (BulkImportTarget.Row<T> row : accepted) {
+                row.entity().setId(null);
+                errors.add(new RowError(row.number(), message));
+            }
+        }
+        return errors;
+    }
+
+    private <T extends BaseModel<Integer>> Set<String> existingUniqueValues(BulkImportTarget<T> target,
+                                                                            List<BulkImportTarget.Row<T>> rows) {
+        List<String> values = rows.stream().map(row -> target.uniqueValue().apply(row.entity())).toList();
+        String sql = "select " + target.uniqueColumn() + " from " + target.table()
+                + " where " + target.uniqueColumn() + " in (:values)";
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Map.of("values", values), String.class));
+    }
+
+    private <T extends BaseModel<Integer>> void copy(BulkImportTarget<T> target, List<BulkImportTarget.Row<T>> rows) {
+        List<Integer> ids = idAllocator.next(target.sequence(), rows.size());
+        StringBuilder csv = new StringBuilder(rows.size() * 128);
+        for (int i = 0; i < rows.size(); i++) {
+            T entity = rows.get(i).entity();
+            entity.setId(ids.get(i));
+            csv.append(entity.getId());
+            for (Object value : target.values().apply(entity)) {
+                csv.append(',');
+                appendCsvValue(csv, value);
+            }
+            csv.append('\n');
+        }
+
+        String sql = "COPY " + target.table() + " (id, " + String.join(", ", target.columns())
+                + ") FROM STDIN WITH (FORMAT csv)";
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            long copied = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(csv.toString()));
+            log.debug("Copied {} rows into {}", copied, target.table());
+        } catch (SQLException ex) {
+            throw new UncategorizedSQLException("COPY", sql, ex);
+        } catch (IOException ex) {
+            throw new DataAccessResourceFailureException("Could not stream rows to COPY", ex);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static void appendCsvValue(StringBuilder csv, Object value) {
+        if (value == null) {
+            return;
+        }
+        csv.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+    }
+}
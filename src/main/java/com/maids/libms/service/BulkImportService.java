@@ -0,0 +1,311 @@
+package com.maids.libms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.maids.libms.cache.CacheBulkOperations;
+import com.maids.libms.cache.NegativeLookupCache;
+import com.maids.libms.cache.PageCache;
+import com.maids.libms.dto.BulkImportReport;
+import com.maids.libms.dto.BulkImportReport.RowError;
+import com.maids.libms.model.BaseModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Streams NDJSON or CSV records into the database. The input is read sequentially in chunks;
+ * chunks are parsed and validated in parallel, then written in input order through
+ * {@link BulkCopyWriter}, one transaction per chunk. At most {@code parallelism} chunks are in
+ * flight, so memory stays bounded whatever the size of the input. Written entities are pushed
+ * to the cache with pipelined writes and their ids announced to the other nodes.
+ * <p>
+ * Invalid records do not stop the import; they are listed in the returned report. CSV input
+ * needs a header row naming the JSON properties of the entity.
+ */
+@Service
+@RequiredArgsConstructor
+public class BulkImportService {
+    public static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    private final BulkCopyWriter writer;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final CacheBulkOperations bulkOperations;
+    private final NegativeLookupCache negativeLookupCache;
+    private final PageCache pageCache;
+
+    private final CsvMapper csvMapper = CsvMapper.builder()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .build();
+
+    @Value("${application.api.bulk-import.chunk-size:1000}")
+    private int chunkSize;
+
+    /** Chunks validated concurrently per import; 0 means half the available cores. */
+    @Value("${application.api.bulk-import.parallelism:0}")
+    private int parallelism;
+
+    @Value("${application.api.bulk-import.max-errors:1000}")
+    private int maxErrors;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        if (parallelism <= 0) {
+            parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public <T extends BaseModel<Integer>> BulkImportReport importRows(BulkImportTarget<T> target,
+                                                                      MediaType contentType, InputStream body) {
+        Progress progress = new Progress();
+        Deque<Future<ValidatedChunk<T>>> pending = new ArrayDeque<>();
+        List<RawRecord> chunk = new ArrayList<>(chunkSize);
+        try (RecordReader reader = open(contentType, body)) {
+            RawRecord record;
+            while ((record = reader.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() == chunkSize) {
+                    pending.add(submit(target, chunk));
+                    chunk = new ArrayList<>(chunkSize);
+                    if (pending.size() >= parallelism) {
+                        write(target, await(pending.poll()), progress);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            long row = progress.totalRows + pending.size() * (long) chunkSize + chunk.size() + 1;
+            log.warn("Bulk import into {} stopped at unreadable record {}", target.table(), row, ex);
+            progress.unreadable = new RowError(row, "Unreadable input, import stopped: " + message(ex));
+        }
+        if (!chunk.isEmpty()) {
+            pending.add(submit(target, chunk));
+        }
+        while (!pending.isEmpty()) {
+            write(target, await(pending.poll()), progress);
+        }
+
+        if (progress.imported > 0) {
+            pageCache.bump(target.pageCacheName());
+        }
+        log.info("Bulk import into {}: {} rows, {} imported, {} failed",
+                target.table(), progress.totalRows, progress.imported, progress.failed);
+        return progress.report();
+    }
+
+    private RecordReader open(MediaType contentType, InputStream body) throws IOException {
+        if (contentType != null && TEXT_CSV.includes(contentType)) {
+            MappingIterator<Map<String, String>> records = csvMapper.readerForMapOf(String.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(body);
+            return new RecordReader() {
+                private long number;
+
+                @Override
+                public RawRecord next() throws IOException {
+                    return records.hasNextValue() ? new RawRecord(++number, records.nextValue()) : null;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    records.close();
+                }
+            };
+        }
+        if (contentType != null && MediaType.APPLICATION_NDJSON.includes(contentType)) {
+            BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            return new RecordReader() {
+                private long number;
+
+                @Override
+                public RawRecord next() throws IOException {
+                    String line;
+                    while ((line = lines.readLine()) != null) {
+                        if (!line.isBlank()) {
+                            return new RawRecord(++number, line);
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    lines.close();
+                }
+            };
+        }
+        throw new IllegalArgumentException("Bulk import accepts " + MediaType.APPLICATION_NDJSON + " or " + TEXT_CSV);
+    }
+
+    private <T extends BaseModel<Integer>> Future<ValidatedChunk<T>> submit(BulkImportTarget<T> target,
+                                                                           List<RawRecord> records) {
+        return executor.submit(() -> validate(target, records));
+    }
+
+    private <T extends BaseModel<Integer>> ValidatedChunk<T> validate(BulkImportTarget<T> target,
+                                                                     List<RawRecord> records) {
+        List<BulkImportTarget.Row<T>> rows = new ArrayList<>(records.size());
+        List<RowError> errors = new ArrayList<>();
+        Map<String, Long> firstRowByUniqueValue = new HashMap<>();
+        for (RawRecord record : records) {
+            T entity;
+            try {
+                entity = record.value() instanceof String line
+                        ? objectMapper.readValue(line, target.type())
+                        : objectMapper.convertValue(record.value(), target.type());
+            } catch (JsonProcessingException | IllegalArgumentException ex) {
+                errors.add(new RowError(record.number(), "Malformed record: " + message(ex)));
+                continue;
+            }
+            entity.setId(null);
+            String violations = validator.validate(entity).stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining("; "));
+            if (!violations.isEmpty()) {
+                errors.add(new RowError(record.number(), violations));
+                continue;
+            }
+            Long duplicateOf = firstRowByUniqueValue.putIfAbsent(target.uniqueValue().apply(entity), record.number());
+            if (duplicateOf != null) {
+                errors.add(new RowError(record.number(), target.uniqueColumn() + " duplicates row " + duplicateOf));
+                continue;
+            }
+            rows.add(new BulkImportTarget.Row<>(record.number(), entity));
+        }
+        return new ValidatedChunk<>(records.size(), rows, errors);
+    }
+
+    private <T extends BaseModel<Integer>> void write(BulkImportTarget<T> target, ValidatedChunk<T> chunk,
+                                                      Progress progress) {
+        List<RowError> errors = new ArrayList<>(chunk.errors());
+        if (!chunk.rows().isEmpty()) {
+            errors.addAll(writer.write(target, chunk.rows()));
+        }
+        Map<Integer, T> written = new HashMap<>();
+        chunk.rows().stream()
+                .map(BulkImportTarget.Row::entity)
+                .filter(entity -> entity.getId() != null)
+                .forEach(entity -> written.put(entity.getId(), entity));
+        if (!written.isEmpty()) {
+            try {
+                negativeLookupCache.recordCreatedAll(target.cacheName(), written.keySet());
+                bulkOperations.putAllCreated(target.cacheName(), written);
+            } catch (RuntimeException ex) {
+                log.warn("Could not refresh cache {} after bulk import", target.cacheName(), ex);
+            }
+        }
+        errors.sort(Comparator.comparingLong(RowError::getRow));
+        progress.add(chunk.size(), written.size(), errors);
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during bulk import", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Bulk import failed", ex.getCause());
+        }
+    }
+
+    private static String message(Exception ex) {
+        return ex instanceof JsonProcessingException json ? json.getOriginalMessage() : ex.getMessage();
+    }
+
+    private interface RecordReader extends AutoCloseable {
+        RawRecord next() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private record RawRecord(long number, Object value) {
+    }
+
+    private record ValidatedChunk<T>(int size, List<BulkImportTarget.Row<T>> rows, List<RowError> errors) {
+    }
+
+    private final class Progress {
+        private long totalRows;
+        private long imported;
+        private long failed;
+        private final List<RowError> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+        private RowError unreadable;
+
+        void add(int rows, int written, List<RowError> rowErrors) {
+            totalRows += rows;
+            imported += written;
+            failed += rowErrors.size();
+            for (RowError error : rowErrors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(error);
+                } else {
+                    errorsTruncated = true;
+                }
+            }
+        }
+
+        BulkImportReport report() {
+            List<RowError> reported = new ArrayList<>(errors);
+            if (unreadable != null) {
+                reported.add(unreadable);
+            }
+            return BulkImportReport.builder()
+                    .totalRows(totalRows)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(reported)
+                    .errorsTruncated(errorsTruncated)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.maids.libms.service;
+
+import com.maids.libms.model.BaseModel;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Describes how entities of one type are written by {@link BulkCopyWriter}: the table and its
+ * id sequence, the columns filled by {@code COPY} (without {@code id}) with their values, the
+ * single unique column checked before writing, and the caches refreshed afterwards.
+ */
+public record BulkImportTarget<T extends BaseModel<Integer>>(
+        Class<T> type,
+        String table,
+        String sequence,
+        List<String> columns,
+        Function<T, List<Object>> values,
+        String uniqueColumn,
+        Function<T, String> uniqueValue,
+        String cacheName,
+        String pageCacheName) {
+
+    /** A parsed and validated input record with its 1-based position in the input. */
+    public record Row<T>(long number, T entity) {
+    }
+}
@@ -8,15 +8,40 @@ import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Service
 public class PatronService extends BaseService<Patron, Integer> {
+    public static final BulkImportTarget<Patron> BULK_IMPORT_TARGET = new BulkImportTarget<>(
+            Patron.class, "patrons", "patrons_seq",
+            List.of("name", "address", "post_no", "city", "email", "phone_no"),
+            patron -> Arrays.asList(patron.getName(), patron.getAddress(), patron.getPostNo(), patron.getCity(),
+                    patron.getEmail(), patron.getPhoneNo()),
+            "email", Patron::getEmail,
+            CacheConstants.PATRON_CACHE, CacheConstants.PATRON_PAGE_CACHE);
     
     public PatronService(PatronRepository repository) {
         super(repository);
     }
 
     @Override
-    @Cacheable(value = CacheConstants.PATRON_CACHE, key = "#id", unless = "#result == null")
+    protected String cacheName() {
+        return CacheConstants.PATRON_CACHE;
+    }
+
+    @Override
+    protected String responseCacheName() {
+        return CacheConstants.PATRON_RESPONSE_CACHE;
+    }
+
+    @Override
+    protected String pageCacheName() {
+        return CacheConstants.PATRON_PAGE_CACHE;
+    }
+
+    @Override
+    @Cacheable(value = CacheConstants.PATRON_CACHE, key = "#id", sync = true)
     public Patron findById(Integer id) {
         return super.findById(id);
     }
@@ -28,7 +53,7 @@ public class PatronService extends BaseService<Patron, Integer> {
     }
 
     @Override
-    @CacheEvict(value = CacheConstants.PATRON_CACHE, key = "#id")
+    @CacheEvict(value = {CacheConstants.PATRON_CACHE, CacheConstants.PATRON_RESPONSE_CACHE}, key = "#id")
     public String delete(Integer id) {
         return super.delete(id);
     }
@@ -0,0 +1,63 @@
+package com.maids.libms.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opaque position for keyset pagination: the sort order of the walk and the sort-key values of
+ * the last row returned. Encoded as URL-safe base64 JSON so clients pass it back unchanged
+ * instead of building offsets. Key values must survive a JSON round trip (strings and numbers).
+ */
+public record KeysetCursor(Sort sort, Map<String, Object> keys) {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> STATE_TYPE = new TypeReference<>() {
+    };
+
+    public static KeysetCursor start(Sort sort) {
+        return new KeysetCursor(sort, Map.of());
+    }
+
+    public boolean isStart() {
+        return keys.isEmpty();
+    }
+
+    public String encode() {
+        List<String> orders = sort.stream()
+                .map(order -> order.getProperty() + ":" + order.getDirection())
+                .toList();
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("s", orders);
+        state.put("k", keys);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(state));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot encode cursor keys " + keys, ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static KeysetCursor decode(String token) {
+        try {
+            Map<String, Object> state = MAPPER.readValue(Base64.getUrlDecoder().decode(token), STATE_TYPE);
+            List<Sort.Order> orders = ((List<String>) state.get("s")).stream()
+                    .map(order -> order.split(":", 2))
+                    .map(parts -> new Sort.Order(Sort.Direction.fromString(parts[1]), parts[0]))
+                    .toList();
+            Map<String, Object> keys = (Map<String, Object>) state.get("k");
+            if (orders.isEmpty() || keys == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(Sort.by(orders), keys);
+        } catch (IOException | RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+-- Schema as generated by Hibernate before migrations were introduced. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and never run it.
+
+CREATE TABLE IF NOT EXISTS books (
+    id               INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    author           VARCHAR(255) NOT NULL,
+    description      VARCHAR(255),
+    isbn             VARCHAR(255) NOT NULL UNIQUE,
+    publication_year INTEGER      NOT NULL,
+    title            VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS patrons (
+    id       INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    address  VARCHAR(255) NOT NULL,
+    city     VARCHAR(255) NOT NULL,
+    email    VARCHAR(255) NOT NULL UNIQUE,
+    name     VARCHAR(255) NOT NULL,
+    phone_no VARCHAR(255) NOT NULL,
+    post_no  VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS borrow_records (
+    id             INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    borrowing_date TIMESTAMP(6) NOT NULL,
+    return_date    TIMESTAMP(6),
+    book_id        INTEGER REFERENCES books (id),
+    patron_id      INTEGER REFERENCES patrons (id)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id            INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email         VARCHAR(255) NOT NULL UNIQUE,
+    password      VARCHAR(255) NOT NULL,
+    role          VARCHAR(255) CHECK (role IN ('ROLE_USER', 'ROLE_ADMIN')),
+    token_version INTEGER
+);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id         INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    expires_at TIMESTAMP(6) NOT NULL,
+    token_key  VARCHAR(255) NOT NULL UNIQUE
+);
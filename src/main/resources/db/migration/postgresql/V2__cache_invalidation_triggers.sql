@@ -0,0 +1,61 @@
+-- Publishes changes to cached tables on the libms_cache_invalidation channel so edits made
+-- outside the application (psql, ETL jobs) evict the matching cache entries.
+--
+-- Statement-level triggers send one notification per statement, not per row:
+--   <table>:<INSERT|UPDATE|DELETE>:<id>,<id>,...
+-- When the id list would not fit in a NOTIFY payload the ids are replaced by '*', which makes
+-- listeners clear the whole cache. Sessions connected as the application itself
+-- (application_name 'libms') are skipped because the application evicts its own writes.
+
+CREATE OR REPLACE FUNCTION libms_notify_cache_invalidation() RETURNS trigger AS $$
+DECLARE
+    ids TEXT;
+BEGIN
+    IF current_setting('application_name', true) = 'libms' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        SELECT string_agg(DISTINCT id::TEXT, ',') INTO ids FROM old_rows;
+    ELSE
+        SELECT string_agg(DISTINCT id::TEXT, ',') INTO ids FROM new_rows;
+    END IF;
+    IF ids IS NULL THEN
+        RETURN NULL;
+    END IF;
+    IF length(ids) > 7000 THEN
+        ids := '*';
+    END IF;
+    PERFORM pg_notify('libms_cache_invalidation', TG_TABLE_NAME || ':' || TG_OP || ':' || ids);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS books_cache_insert ON books;
+CREATE TRIGGER books_cache_insert AFTER INSERT ON books
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION libms_notify_cache_invalidation();
+
+DROP TRIGGER IF EXISTS books_cache_update ON books;
+CREATE TRIGGER books_cache_update AFTER UPDATE ON books
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION libms_notify_cache_invalidation();
+
+DROP TRIGGER IF EXISTS books_cache_delete ON books;
+CREATE TRIGGER books_cache_delete AFTER DELETE ON books
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION libms_notify_cache_invalidation();
+
+DROP TRIGGER IF EXISTS patrons_cache_insert ON patrons;
+CREATE TRIGGER patrons_cache_insert AFTER INSERT ON patrons
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION libms_notify_cache_invalidation();
+
+DROP TRIGGER IF EXISTS patrons_cache_update ON patrons;
+CREATE TRIGGER patrons_cache_update AFTER UPDATE ON patrons
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION libms_notify_cache_invalidation();
+
+DROP TRIGGER IF EXISTS patrons_cache_delete ON patrons;
+CREATE TRIGGER patrons_cache_delete AFTER DELETE ON patrons
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION libms_notify_cache_invalidation();
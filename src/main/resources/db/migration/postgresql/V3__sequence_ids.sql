@@ -0,0 +1,29 @@
+-- Moves every table from IDENTITY ids to sequences so Hibernate can batch inserts. The names
+-- follow Hibernate's implicit <table>_seq naming and the increment matches its pooled
+-- optimizer, which hands out the 50 ids up to each value returned by nextval. Sequences of
+-- non-empty tables are positioned so the next block starts after the current maximum id.
+
+CREATE SEQUENCE IF NOT EXISTS books_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('books_seq', MAX(id)) FROM books HAVING MAX(id) IS NOT NULL;
+ALTER TABLE books ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE books ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS patrons_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('patrons_seq', MAX(id)) FROM patrons HAVING MAX(id) IS NOT NULL;
+ALTER TABLE patrons ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE patrons ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS borrow_records_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('borrow_records_seq', MAX(id)) FROM borrow_records HAVING MAX(id) IS NOT NULL;
+ALTER TABLE borrow_records ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE borrow_records ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('users_seq', MAX(id)) FROM users HAVING MAX(id) IS NOT NULL;
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS revoked_tokens_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('revoked_tokens_seq', MAX(id)) FROM revoked_tokens HAVING MAX(id) IS NOT NULL;
+ALTER TABLE revoked_tokens ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE revoked_tokens ALTER COLUMN id DROP DEFAULT;
@@ -0,0 +1,9 @@
+-- At most one open borrow per book. BorrowService inserts and relies on this index to reject a
+-- second borrow instead of locking the active row first, so concurrent borrows of the same book
+-- no longer queue on row locks. Creating the index fails if a book already has several open
+-- borrows; close the extra ones before migrating:
+--   SELECT book_id FROM borrow_records WHERE return_date IS NULL GROUP BY book_id HAVING COUNT(*) > 1;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_borrow_records_active_book
+    ON borrow_records (book_id)
+    WHERE return_date IS NULL;
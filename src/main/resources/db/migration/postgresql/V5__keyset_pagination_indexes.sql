@@ -0,0 +1,8 @@
+-- Indexes for keyset pagination (BaseController.findAfter). A walk sorted by one of these
+-- columns seeks to the cursor on (column, id) instead of sorting the table. isbn and email are
+-- already covered by their unique indexes.
+
+CREATE INDEX IF NOT EXISTS ix_books_title_id ON books (title, id);
+CREATE INDEX IF NOT EXISTS ix_books_author_id ON books (author, id);
+CREATE INDEX IF NOT EXISTS ix_books_publication_year_id ON books (publication_year, id);
+CREATE INDEX IF NOT EXISTS ix_patrons_name_id ON patrons (name, id);
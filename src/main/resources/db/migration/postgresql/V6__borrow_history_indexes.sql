@@ -0,0 +1,7 @@
+-- Borrow history per patron and per book, newest first (BorrowController history endpoints).
+-- Each index serves both the filter and the borrowing_date order, so a page reads only its rows.
+
+CREATE INDEX IF NOT EXISTS ix_borrow_records_patron_borrowing_date
+    ON borrow_records (patron_id, borrowing_date);
+CREATE INDEX IF NOT EXISTS ix_borrow_records_book_borrowing_date
+    ON borrow_records (book_id, borrowing_date);
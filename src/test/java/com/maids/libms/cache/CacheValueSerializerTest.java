@@ -0,0 +1,91 @@
+package com.maids.libms.cache;
+
+import com.maids.libms.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheValueSerializerTest {
+
+    private Book testBook;
+
+    @BeforeEach
+    void setUp() {
+        testBook = new Book()
+                .setIsbn("978-3-16-148410-0")
+                .setTitle("Test Book")
+                .setAuthor("Test Author")
+                .setDescription("Test description")
+                .setPublicationYear(2020);
+        testBook.setId(1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CacheCodec.class)
+    void serialize_ShouldRoundTrip_ForEveryCodec(CacheCodec codec) {
+        // given
+        CacheValueSerializer serializer = new CacheValueSerializer(Book.class, codec, 0);
+
+        // when
+        byte[] bytes = serializer.serialize(testBook);
+
+        // then
+        assertThat(bytes[0]).isEqualTo(CacheValueSerializer.MAGIC);
+        assertThat(serializer.deserialize(bytes)).usingRecursiveComparison().isEqualTo(testBook);
+    }
+
+    @Test
+    void serialize_ShouldBeSmallerThanLegacyJson() {
+        // given
+        CacheValueSerializer serializer = new CacheValueSerializer(Book.class, CacheCodec.SMILE, 0);
+
+        // when
+        byte[] compact = serializer.serialize(testBook);
+        byte[] legacy = new GenericJackson2JsonRedisSerializer().serialize(testBook);
+
+        // then
+        assertThat(compact.length).isLessThan(legacy.length);
+    }
+
+    @Test
+    void serialize_ShouldCompress_WhenAboveThreshold() {
+        // given
+        testBook.setDescription("A long and repetitive description. ".repeat(100));
+        CacheValueSerializer compressing = new CacheValueSerializer(Book.class, CacheCodec.SMILE, 256);
+        CacheValueSerializer plain = new CacheValueSerializer(Book.class, CacheCodec.SMILE, 0);
+
+        // when
+        byte[] compressed = compressing.serialize(testBook);
+
+        // then
+        assertThat(compressed.length).isLessThan(plain.serialize(testBook).length);
+        assertThat(plain.deserialize(compressed)).usingRecursiveComparison().isEqualTo(testBook);
+    }
+
+    @Test
+    void deserialize_ShouldReadLegacyJsonEntries() {
+        // given
+        byte[] legacy = new GenericJackson2JsonRedisSerializer().serialize(testBook);
+        CacheValueSerializer serializer = new CacheValueSerializer(Book.class, CacheCodec.SMILE, 0);
+
+        // when
+        Object value = serializer.deserialize(legacy);
+
+        // then
+        assertThat(value).usingRecursiveComparison().isEqualTo(testBook);
+    }
+
+    @Test
+    void deserialize_ShouldReadEntriesWrittenWithAnotherCodec() {
+        // given
+        byte[] cbor = new CacheValueSerializer(Book.class, CacheCodec.CBOR, 0).serialize(testBook);
+        CacheValueSerializer serializer = new CacheValueSerializer(Book.class, CacheCodec.SMILE, 0);
+
+        // when & then
+        assertThat(serializer.deserialize(cbor)).usingRecursiveComparison().isEqualTo(testBook);
+    }
+}
@@ -0,0 +1,97 @@
+package com.maids.libms.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakingCacheTest {
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    @Mock
+    private RedisConnection connection;
+
+    private ConcurrentMapCache remote;
+    private RedisCircuitBreaker circuitBreaker;
+    private CircuitBreakingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = spy(new ConcurrentMapCache("books", false));
+        circuitBreaker = new RedisCircuitBreaker(connectionFactory, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(circuitBreaker, "failureThreshold", 1);
+        cache = new CircuitBreakingCache(remote, circuitBreaker, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void get_ShouldReturnMissAndOpenCircuit_WhenRedisFails() {
+        // given
+        doThrow(new QueryTimeoutException("timeout")).when(remote).get(1);
+
+        // when
+        Cache.ValueWrapper result = cache.get(1);
+
+        // then
+        assertThat(result).isNull();
+        assertThat(circuitBreaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void get_ShouldSkipRedis_WhenCircuitOpen() {
+        // given
+        remote.put(1, "Clean Code");
+        circuitBreaker.recordFailure(new QueryTimeoutException("timeout"));
+
+        // when
+        Cache.ValueWrapper result = cache.get(1);
+
+        // then
+        assertThat(result).isNull();
+        verify(remote, never()).get(1);
+    }
+
+    @Test
+    void evict_ShouldBeReplayed_WhenCircuitCloses() {
+        // given
+        remote.put(1, "Clean Code");
+        circuitBreaker.recordFailure(new QueryTimeoutException("timeout"));
+        cache.evict(1);
+        assertThat(remote.get(1)).isNotNull();
+        when(connectionFactory.getConnection()).thenReturn(connection);
+
+        // when
+        circuitBreaker.probe();
+
+        // then
+        assertThat(remote.get(1)).isNull();
+    }
+
+    @Test
+    void put_ShouldEvictStaleRemoteEntry_WhenWrittenDuringOutage() {
+        // given
+        remote.put(1, "Clean Code");
+        circuitBreaker.recordFailure(new QueryTimeoutException("timeout"));
+        cache.put(1, "Clean Code, 2nd edition");
+        when(connectionFactory.getConnection()).thenReturn(connection);
+
+        // when
+        circuitBreaker.probe();
+
+        // then
+        assertThat(remote.get(1)).isNull();
+    }
+}
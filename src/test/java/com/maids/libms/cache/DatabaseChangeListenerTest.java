@@ -0,0 +1,88 @@
+package com.maids.libms.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseChangeListenerTest {
+
+    @Mock
+    private DataSourceProperties dataSourceProperties;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private CacheBulkOperations bulkOperations;
+
+    @Mock
+    private PageCache pageCache;
+
+    @Mock
+    private NegativeLookupCache negativeLookupCache;
+
+    @Mock
+    private Cache cache;
+
+    @InjectMocks
+    private DatabaseChangeListener listener;
+
+    @Test
+    void apply_ShouldCoalesceChangedIdsIntoOneEvictionPerTable() {
+        // when
+        listener.apply(List.of("books:UPDATE:1,2", "books:DELETE:2,3", "books:UPDATE:1"));
+
+        // then
+        verify(bulkOperations).evictAll(eq("books"), argThat(ids -> Set.copyOf(ids).equals(Set.of("1", "2", "3"))));
+        verify(pageCache, times(1)).bump("bookPages");
+        verifyNoInteractions(negativeLookupCache);
+    }
+
+    @Test
+    void apply_ShouldRecordCreatedIds_WhenRowsInserted() {
+        // when
+        listener.apply(List.of("patrons:INSERT:7"));
+
+        // then
+        verify(negativeLookupCache).recordCreated("patrons", "7");
+        verify(pageCache).bump("patronPages");
+    }
+
+    @Test
+    void apply_ShouldClearCacheAndRebuildIds_WhenInsertTooLargeToList() {
+        // given
+        when(cacheManager.getCache("books")).thenReturn(cache);
+
+        // when
+        listener.apply(List.of("books:INSERT:*", "books:UPDATE:4"));
+
+        // then
+        verify(cache).clear();
+        verify(bulkOperations, never()).evictAll(anyString(), any());
+        verify(pageCache).bump("bookPages");
+        verify(negativeLookupCache).rebuild();
+    }
+
+    @Test
+    void apply_ShouldIgnoreUnknownTables() {
+        // when
+        listener.apply(List.of("users:UPDATE:1", "garbage"));
+
+        // then
+        verifyNoInteractions(bulkOperations, pageCache, negativeLookupCache, cacheManager);
+    }
+}
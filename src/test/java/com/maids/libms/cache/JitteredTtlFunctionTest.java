@@ -0,0 +1,44 @@
+package com.maids.libms.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JitteredTtlFunctionTest {
+
+    @Test
+    void getTimeToLive_ShouldStayWithinJitterBounds() {
+        // given
+        JitteredTtlFunction ttlFunction = new JitteredTtlFunction(Duration.ofMinutes(10), 0.1);
+        Set<Duration> seen = new HashSet<>();
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            seen.add(ttlFunction.getTimeToLive("key", "value"));
+        }
+
+        // then
+        assertThat(seen).allSatisfy(ttl -> assertThat(ttl)
+                .isBetween(Duration.ofMinutes(9), Duration.ofMinutes(11)));
+        assertThat(seen.size()).isGreaterThan(1);
+    }
+
+    @Test
+    void getTimeToLive_ShouldBeFixed_WhenJitterIsZero() {
+        // given
+        JitteredTtlFunction ttlFunction = new JitteredTtlFunction(Duration.ofMinutes(10), 0);
+
+        // when & then
+        assertThat(ttlFunction.getTimeToLive("key", "value")).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    void constructor_ShouldReject_WhenJitterOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new JitteredTtlFunction(Duration.ofMinutes(10), 1.5));
+    }
+}
@@ -0,0 +1,112 @@
+package com.maids.libms.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NegativeLookupCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    private NegativeLookupCache negativeLookupCache;
+
+    @BeforeEach
+    void setUp() {
+        negativeLookupCache = new NegativeLookupCache(redisTemplate,
+                new RedisCircuitBreaker(connectionFactory, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(negativeLookupCache, "tombstoneTtlSeconds", 60L);
+        ReflectionTestUtils.setField(negativeLookupCache, "bloomFpp", 0.01);
+        ReflectionTestUtils.setField(negativeLookupCache, "bloomMinCapacity", 1000L);
+    }
+
+    @Test
+    void isKnownMissing_ShouldRejectWithoutRedis_WhenIdNeverExisted() {
+        // given
+        negativeLookupCache.track("books", () -> List.of(1, 2, 3, 5));
+        negativeLookupCache.rebuild();
+
+        // when & then
+        assertThat(negativeLookupCache.isKnownMissing("books", 4)).isTrue();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void isKnownMissing_ShouldCheckTombstone_WhenIdIsNewerThanFilter() {
+        // given
+        negativeLookupCache.track("books", () -> List.of(1, 2, 3));
+        negativeLookupCache.rebuild();
+
+        // when & then
+        assertThat(negativeLookupCache.isKnownMissing("books", 999)).isFalse();
+        verify(redisTemplate).hasKey("libms:missing:books:999");
+    }
+
+    @Test
+    void isKnownMissing_ShouldCheckTombstone_WhenIdMightExist() {
+        // given
+        negativeLookupCache.track("books", () -> List.of(1, 2, 3));
+        negativeLookupCache.rebuild();
+        when(redisTemplate.hasKey("libms:missing:books:2")).thenReturn(true);
+
+        // when & then
+        assertThat(negativeLookupCache.isKnownMissing("books", 2)).isTrue();
+        assertThat(negativeLookupCache.isKnownMissing("books", 1)).isFalse();
+    }
+
+    @Test
+    void isKnownMissing_ShouldAssumePresent_BeforeFilterSeeded() {
+        // given
+        negativeLookupCache.track("books", () -> List.of(1));
+
+        // when & then
+        assertThat(negativeLookupCache.isKnownMissing("books", 999)).isFalse();
+    }
+
+    @Test
+    void recordCreated_ShouldAddToFilterAndClearTombstone() {
+        // given
+        negativeLookupCache.track("books", List::of);
+        negativeLookupCache.rebuild();
+
+        // when
+        negativeLookupCache.recordCreated("books", 42);
+
+        // then
+        verify(redisTemplate).delete("libms:missing:books:42");
+        assertThat(negativeLookupCache.presence("books").mightContain("42")).isTrue();
+    }
+
+    @Test
+    void recordMissing_ShouldWriteShortLivedTombstone() {
+        // given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        // when
+        negativeLookupCache.recordMissing("books", 7);
+
+        // then
+        verify(valueOperations).set(eq("libms:missing:books:7"), anyString(), eq(Duration.ofSeconds(60)));
+    }
+}
@@ -0,0 +1,144 @@
+package com.maids.libms.cache;
+
+import com.maids.libms.model.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PageCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    private PageCache pageCache;
+    private AtomicInteger loads;
+    private Book testBook;
+
+    @BeforeEach
+    void setUp() {
+        pageCache = new PageCache(redisTemplate, new ConcurrentMapCacheManager(),
+                new RedisCircuitBreaker(connectionFactory, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(pageCache, "maxCachedPage", 2);
+        loads = new AtomicInteger();
+        testBook = new Book()
+                .setIsbn("978-3-16-148410-0")
+                .setTitle("Test Book")
+                .setAuthor("Test Author")
+                .setPublicationYear(2020);
+        testBook.setId(1);
+    }
+
+    private Page<Book> loadPage(PageRequest pageable) {
+        loads.incrementAndGet();
+        return new PageImpl<>(List.of(testBook), pageable, 42);
+    }
+
+    @Test
+    void get_ShouldServeRepeatedPageFromCache() {
+        // given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("libms:version:bookPages")).thenReturn("3");
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("title"));
+
+        // when
+        Page<Book> first = pageCache.get("bookPages", pageable, () -> loadPage(pageable));
+        Page<Book> second = pageCache.get("bookPages", pageable, () -> loadPage(pageable));
+
+        // then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second.getTotalElements()).isEqualTo(42);
+        assertThat(second.getContent()).containsExactly(testBook);
+        assertThat(second.getPageable()).isEqualTo(first.getPageable());
+    }
+
+    @Test
+    void get_ShouldReload_WhenVersionBumped() {
+        // given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("libms:version:bookPages")).thenReturn(null, "1");
+        PageRequest pageable = PageRequest.of(0, 10);
+        pageCache.get("bookPages", pageable, () -> loadPage(pageable));
+
+        // when
+        pageCache.bump("bookPages");
+        pageCache.get("bookPages", pageable, () -> loadPage(pageable));
+
+        // then
+        verify(valueOperations).increment("libms:version:bookPages");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_ShouldKeepVariantsApart() {
+        // given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("libms:version:bookPages")).thenReturn("3");
+        PageRequest pageable = PageRequest.of(0, 10);
+        pageCache.get("bookPages", pageable, () -> loadPage(pageable));
+
+        // when
+        Page<String> titles = pageCache.get("bookPages", "titles", pageable,
+                () -> new PageImpl<>(List.of(testBook.getTitle()), pageable, 42));
+        Page<Book> books = pageCache.get("bookPages", pageable, () -> loadPage(pageable));
+
+        // then
+        assertThat(titles.getContent()).containsExactly("Test Book");
+        assertThat(books.getContent()).containsExactly(testBook);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void get_ShouldBypassCache_ForDeepPages() {
+        // given
+        PageRequest pageable = PageRequest.of(5, 10);
+
+        // when
+        pageCache.get("bookPages", pageable, () -> loadPage(pageable));
+        pageCache.get("bookPages", pageable, () -> loadPage(pageable));
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void cachedPage_ShouldRoundTripThroughRedisSerializer() {
+        // given
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+        CachedPage<Book> page = CachedPage.of(loadPage(PageRequest.of(0, 10)));
+
+        // when
+        Object restored = serializer.deserialize(serializer.serialize(page));
+
+        // then
+        assertThat(restored).isInstanceOf(CachedPage.class);
+        assertThat(((CachedPage<?>) restored).totalElements()).isEqualTo(42);
+        assertThat(((CachedPage<?>) restored).content()).singleElement().isInstanceOf(Book.class);
+    }
+}
@@ -0,0 +1,125 @@
+package com.maids.libms.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisCircuitBreakerTest {
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    @Mock
+    private RedisConnection connection;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RedisCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new RedisCircuitBreaker(connectionFactory, meterRegistry);
+        ReflectionTestUtils.setField(circuitBreaker, "failureThreshold", 3);
+    }
+
+    @Test
+    void recordFailure_ShouldOpen_AfterConsecutiveFailures() {
+        // when
+        circuitBreaker.recordFailure(new QueryTimeoutException("timeout"));
+        circuitBreaker.recordFailure(new QueryTimeoutException("timeout"));
+        boolean allowedBeforeThreshold = circuitBreaker.allowRequest();
+        circuitBreaker.recordFailure(new QueryTimeoutException("timeout"));
+
+        // then
+        assertThat(allowedBeforeThreshold).isTrue();
+        assertThat(circuitBreaker.allowRequest()).isFalse();
+        assertThat(meterRegistry.get("libms.cache.redis.circuit.open").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("libms.cache.redis.circuit.opened").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void recordSuccess_ShouldResetFailureCount() {
+        // when
+        circuitBreaker.recordFailure(new QueryTimeoutException("timeout"));
+        circuitBreaker.recordFailure(new QueryTimeoutException("timeout"));
+        circuitBreaker.recordSuccess();
+        circuitBreaker.recordFailure(new QueryTimeoutException("timeout"));
+
+        // then
+        assertThat(circuitBreaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void execute_ShouldReturnFallbackWithoutCallingRedis_WhenOpen() {
+        // given
+        open();
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        String result = circuitBreaker.execute(() -> "remote-" + calls.incrementAndGet(), () -> "fallback");
+
+        // then
+        assertThat(result).isEqualTo("fallback");
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void probe_ShouldStayOpen_WhenPingFails() {
+        // given
+        open();
+        when(connectionFactory.getConnection()).thenThrow(new RedisConnectionFailureException("down"));
+
+        // when
+        circuitBreaker.probe();
+
+        // then
+        assertThat(circuitBreaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void probe_ShouldCloseAndNotifyListeners_WhenPingSucceeds() {
+        // given
+        open();
+        AtomicInteger notified = new AtomicInteger();
+        circuitBreaker.addCloseListener(notified::incrementAndGet);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+
+        // when
+        circuitBreaker.probe();
+
+        // then
+        assertThat(circuitBreaker.allowRequest()).isTrue();
+        assertThat(notified).hasValue(1);
+        assertThat(meterRegistry.get("libms.cache.redis.circuit.open").gauge().value()).isEqualTo(0.0);
+        verify(connection).ping();
+    }
+
+    @Test
+    void probe_ShouldNotTouchRedis_WhenClosed() {
+        // when
+        circuitBreaker.probe();
+
+        // then
+        verifyNoInteractions(connectionFactory);
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.recordFailure(new QueryTimeoutException("timeout"));
+        }
+    }
+}
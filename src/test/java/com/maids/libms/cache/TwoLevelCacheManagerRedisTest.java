@@ -0,0 +1,204 @@
+package com.maids.libms.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maids.libms.model.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes sharing a real Redis: values go through the production serializer into Redis and
+ * back, and invalidations travel over pub/sub. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TwoLevelCacheManagerRedisTest {
+    private static final String CHANNEL = "libms:cache:invalidation";
+    private static final String CACHE = "books";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Container
+    private static final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private LettuceConnectionFactory connectionFactory;
+    private final List<RedisMessageListenerContainer> listenerContainers = new ArrayList<>();
+    private final Set<String> nodeBKeys = ConcurrentHashMap.newKeySet();
+    private RedisCacheManager redisCacheManager;
+    private TwoLevelCacheManager nodeA;
+    private TwoLevelCacheManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+
+        redisCacheManager = redisCacheManager();
+        nodeA = node(ConcurrentHashMap.newKeySet());
+        nodeB = node(nodeBKeys);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (RedisMessageListenerContainer container : listenerContainers) {
+            container.destroy();
+        }
+        connectionFactory.destroy();
+    }
+
+    private RedisCacheManager redisCacheManager() {
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+                .disableCachingNullValues()
+                .serializeKeysWith(
+                        RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new CacheValueSerializer(Book.class, CacheCodec.SMILE, 64)));
+        return RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(config)
+                .build();
+    }
+
+    private TwoLevelCacheManager node(Set<String> presentKeys) {
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisCacheManager(), redisTemplate,
+                new ObjectMapper(), CHANNEL,
+                new TwoLevelCacheSettings(100, Duration.ofMinutes(1), false, Duration.ZERO, 0),
+                name -> new SetKeyPresence(presentKeys),
+                new RedisCircuitBreaker(connectionFactory, new SimpleMeterRegistry()), new SimpleMeterRegistry());
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+        listenerContainers.add(container);
+        return cacheManager;
+    }
+
+    private static Book book(String title) {
+        Book book = new Book()
+                .setIsbn("978-0-13-235088-4")
+                .setTitle(title)
+                .setAuthor("Robert C. Martin")
+                .setPublicationYear(2008);
+        book.setId(1);
+        return book;
+    }
+
+    private static <T> T eventually(Supplier<T> read, T expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        T value = read.get();
+        while (!expected.equals(value) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            value = read.get();
+        }
+        return value;
+    }
+
+    @Test
+    void put_ShouldReachOtherNodeThroughRedis() throws Exception {
+        // given
+        Book written = book("Clean Code");
+
+        // when
+        nodeA.getCache(CACHE).put(1, written);
+
+        // then
+        String title = eventually(() -> {
+            Book read = nodeB.getCache(CACHE).get(1, Book.class);
+            return read != null ? read.getTitle() : null;
+        }, "Clean Code");
+        assertThat(title).isEqualTo("Clean Code");
+        Book read = nodeB.getCache(CACHE).get(1, Book.class);
+        assertThat(read).isNotSameAs(written).isEqualTo(written);
+        assertThat(nodeBKeys).contains("1");
+    }
+
+    @Test
+    void put_ShouldEvictStaleCopyOnOtherNode() throws Exception {
+        // given
+        nodeA.getCache(CACHE).put(1, book("Clean Code"));
+        TwoLevelCache nodeBCache = (TwoLevelCache) nodeB.getCache(CACHE);
+        boolean heldLocally = eventually(() -> {
+            nodeBCache.get(1, Book.class);
+            return nodeBCache.getLocal(1) != null;
+        }, true);
+        assertThat(heldLocally).isTrue();
+
+        // when
+        nodeA.getCache(CACHE).put(1, book("Clean Code, 2nd edition"));
+
+        // then
+        String title = eventually(() -> nodeB.getCache(CACHE).get(1, Book.class).getTitle(), "Clean Code, 2nd edition");
+        assertThat(title).isEqualTo("Clean Code, 2nd edition");
+    }
+
+    @Test
+    void evict_ShouldRemoveEntryOnOtherNode() throws Exception {
+        // given
+        nodeA.getCache(CACHE).put(1, book("Clean Code"));
+        eventually(() -> nodeB.getCache(CACHE).get(1, Book.class) != null, true);
+
+        // when
+        nodeA.getCache(CACHE).evict(1);
+
+        // then
+        boolean gone = eventually(() -> nodeB.getCache(CACHE).get(1, Book.class) == null, true);
+        assertThat(gone).isTrue();
+    }
+
+    @Test
+    void announce_ShouldLetOtherNodeFindKeyWrittenStraightToRedis() throws Exception {
+        // given: written straight to Redis, as bulk operations do
+        redisCacheManager.getCache(CACHE).put(1, book("Clean Code"));
+        assertThat(nodeB.getCache(CACHE).get(1, Book.class)).isNull();
+
+        // when
+        nodeA.announce(CACHE, List.of(1));
+
+        // then
+        boolean present = eventually(() -> nodeBKeys.contains("1"), true);
+        assertThat(present).isTrue();
+        assertThat(nodeB.getCache(CACHE).get(1, Book.class).getTitle()).isEqualTo("Clean Code");
+    }
+
+    private record SetKeyPresence(Set<String> keys) implements KeyPresence {
+        @Override
+        public boolean mightContain(String key) {
+            return keys.contains(key);
+        }
+
+        @Override
+        public void add(String key) {
+            keys.add(key);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.maids.libms.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerTest {
+    private static final String CHANNEL = "libms:cache:invalidation";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Set<String> presentKeys = ConcurrentHashMap.newKeySet();
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private RedisCircuitBreaker circuitBreaker;
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remoteCacheManager = new ConcurrentMapCacheManager();
+        circuitBreaker = new RedisCircuitBreaker(connectionFactory, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(circuitBreaker, "failureThreshold", 1);
+        cacheManager = new TwoLevelCacheManager(remoteCacheManager, redisTemplate, objectMapper, CHANNEL,
+                new TwoLevelCacheSettings(100, Duration.ofMinutes(1), false, Duration.ZERO, 0),
+                name -> new SetKeyPresence(presentKeys), circuitBreaker, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void put_ShouldPublishInvalidationWithNodeId() throws Exception {
+        // when
+        cacheManager.getCache("books").put(1, "Clean Code");
+
+        // then
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), payload.capture());
+        CacheInvalidationMessage message = objectMapper.readValue(payload.getValue(), CacheInvalidationMessage.class);
+        assertThat(message).isEqualTo(new CacheInvalidationMessage(cacheManager.getNodeId(), "books", "1"));
+    }
+
+    @Test
+    void announce_ShouldPublishKeysInOneMessage() throws Exception {
+        // when
+        cacheManager.announce("books", List.of(1, 2, 3));
+
+        // then
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), payload.capture());
+        CacheInvalidationMessage message = objectMapper.readValue(payload.getValue(), CacheInvalidationMessage.class);
+        assertThat(message).isEqualTo(
+                CacheInvalidationMessage.batch(cacheManager.getNodeId(), "books", List.of("1", "2", "3")));
+    }
+
+    @Test
+    void onMessage_ShouldEvictLocalEntry_WhenSentByAnotherNode() throws Exception {
+        // given
+        Cache cache = cacheManager.getCache("books");
+        cache.put(1, "Clean Code");
+        remoteCacheManager.getCache("books").put(1, "Refactoring");
+
+        // when
+        cacheManager.onMessage(message(new CacheInvalidationMessage("other-node", "books", "1")), null);
+
+        // then
+        assertThat(cache.get(1).get()).isEqualTo("Refactoring");
+    }
+
+    @Test
+    void onMessage_ShouldIgnoreOwnMessages() throws Exception {
+        // given
+        Cache cache = cacheManager.getCache("books");
+        cache.put(1, "Clean Code");
+        remoteCacheManager.getCache("books").put(1, "Refactoring");
+
+        // when
+        cacheManager.onMessage(message(new CacheInvalidationMessage(cacheManager.getNodeId(), "books", "1")), null);
+
+        // then
+        assertThat(cache.get(1).get()).isEqualTo("Clean Code");
+    }
+
+    @Test
+    void onMessage_ShouldEvictAndRecordEveryKeyOfBatch() throws Exception {
+        // given
+        Cache cache = cacheManager.getCache("books");
+        cache.put(1, "Clean Code");
+        remoteCacheManager.getCache("books").put(1, "Refactoring");
+        remoteCacheManager.getCache("books").put(2, "Domain-Driven Design");
+
+        // when
+        cacheManager.onMessage(message(CacheInvalidationMessage.batch("other-node", "books", List.of("1", "2"))), null);
+
+        // then
+        assertThat(presentKeys).contains("1", "2");
+        assertThat(cache.get(1).get()).isEqualTo("Refactoring");
+        assertThat(cache.get(2).get()).isEqualTo("Domain-Driven Design");
+    }
+
+    @Test
+    void onMessage_ShouldRecordKeys_WhenCacheNotUsedYet() throws Exception {
+        // when
+        cacheManager.onMessage(message(new CacheInvalidationMessage("other-node", "patrons", "7")), null);
+
+        // then
+        assertThat(presentKeys).contains("7");
+    }
+
+    @Test
+    void put_ShouldPublishHeldBackInvalidations_WhenCircuitCloses() throws Exception {
+        // given
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        circuitBreaker.recordFailure(new IllegalStateException("Redis down"));
+        Cache cache = cacheManager.getCache("books");
+        cache.put(1, "Clean Code");
+        cache.put(2, "Refactoring");
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+
+        // when
+        circuitBreaker.probe();
+
+        // then
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), payload.capture());
+        CacheInvalidationMessage message = objectMapper.readValue(payload.getValue(), CacheInvalidationMessage.class);
+        assertThat(message.origin()).isEqualTo(cacheManager.getNodeId());
+        assertThat(message.affectedKeys()).containsExactlyInAnyOrder("1", "2");
+    }
+
+    @Test
+    void announce_ShouldLetOtherNodeFindImportedKey() throws Exception {
+        // given
+        Set<String> otherNodeKeys = ConcurrentHashMap.newKeySet();
+        TwoLevelCacheManager otherNode = new TwoLevelCacheManager(remoteCacheManager, redisTemplate, objectMapper,
+                CHANNEL, new TwoLevelCacheSettings(100, Duration.ofMinutes(1), false, Duration.ZERO, 0),
+                name -> new SetKeyPresence(otherNodeKeys), circuitBreaker, new SimpleMeterRegistry());
+        Cache otherNodeCache = otherNode.getCache("books");
+        remoteCacheManager.getCache("books").put(7, "Imported Book");
+        assertThat(otherNodeCache.get(7)).isNull();
+
+        // when
+        cacheManager.announce("books", List.of(7));
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), payload.capture());
+        otherNode.onMessage(new DefaultMessage(CHANNEL.getBytes(), payload.getValue().getBytes()), null);
+
+        // then
+        assertThat(otherNodeCache.get(7).get()).isEqualTo("Imported Book");
+    }
+
+    private record SetKeyPresence(Set<String> keys) implements KeyPresence {
+        @Override
+        public boolean mightContain(String key) {
+            return keys.contains(key);
+        }
+
+        @Override
+        public void add(String key) {
+            keys.add(key);
+        }
+    }
+
+    private DefaultMessage message(CacheInvalidationMessage invalidation) throws Exception {
+        return new DefaultMessage(CHANNEL.getBytes(), objectMapper.writeValueAsBytes(invalidation));
+    }
+}
@@ -0,0 +1,283 @@
+package com.maids.libms.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TwoLevelCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrentMapCache remote;
+    private List<String> published;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        remote = new ConcurrentMapCache("books", false);
+        published = new ArrayList<>();
+        cache = new TwoLevelCache("books", Caffeine.newBuilder().maximumSize(100).build(), remote,
+                (name, key) -> published.add(name + "::" + key), meterRegistry);
+    }
+
+    @Test
+    void get_ShouldServeFromLocal_WhenRemoteEntryRemovedBehindIt() {
+        // given
+        remote.put(1, "Clean Code");
+        assertThat(cache.get(1).get()).isEqualTo("Clean Code");
+
+        // when
+        remote.evict(1);
+
+        // then
+        assertThat(cache.get(1).get()).isEqualTo("Clean Code");
+    }
+
+    @Test
+    void put_ShouldWriteBothLevelsAndPublish() {
+        // when
+        cache.put(1, "Clean Code");
+
+        // then
+        assertThat(remote.get(1).get()).isEqualTo("Clean Code");
+        assertThat(cache.get(1).get()).isEqualTo("Clean Code");
+        assertThat(published).containsExactly("books::1");
+    }
+
+    @Test
+    void evict_ShouldRemoveFromBothLevelsAndPublish() {
+        // given
+        cache.put(1, "Clean Code");
+
+        // when
+        cache.evict(1);
+
+        // then
+        assertThat(remote.get(1)).isNull();
+        assertThat(cache.get(1)).isNull();
+        assertThat(published).containsExactly("books::1", "books::1");
+    }
+
+    @Test
+    void evictLocal_ShouldReloadFromRemote() {
+        // given
+        cache.put(1, "Clean Code");
+        remote.put(1, "Refactoring");
+
+        // when
+        cache.evictLocal("1");
+
+        // then
+        assertThat(cache.get(1).get()).isEqualTo("Refactoring");
+    }
+
+    @Test
+    void getWithLoader_ShouldLoadOnceAndPopulateBothLevels() {
+        // given
+        int[] calls = {0};
+
+        // when
+        String first = cache.get(1, () -> { calls[0]++; return "Clean Code"; });
+        String second = cache.get(1, () -> { calls[0]++; return "Clean Code"; });
+
+        // then
+        assertThat(first).isEqualTo("Clean Code");
+        assertThat(second).isEqualTo("Clean Code");
+        assertThat(calls[0]).isEqualTo(1);
+        assertThat(remote.get(1).get()).isEqualTo("Clean Code");
+    }
+
+    @Test
+    void get_ShouldRecordHitsAndMissesPerLevel() {
+        // given
+        remote.put(1, "Clean Code");
+
+        // when
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+
+        // then
+        assertThat(gets("hit", "remote")).isEqualTo(1);
+        assertThat(gets("hit", "local")).isEqualTo(1);
+        assertThat(gets("miss", "none")).isEqualTo(1);
+        assertThat(meterRegistry.get("libms.cache.redis.latency").tag("operation", "get").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void putAndEvict_ShouldBeCounted() {
+        // when
+        cache.put(1, "Clean Code");
+        cache.evict(1);
+
+        // then
+        assertThat(meterRegistry.get("libms.cache.puts").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("libms.cache.evictions").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void put_ShouldCacheNull_WhenRemoteAllowsNullValues() {
+        // given
+        TwoLevelCache nullCache = new TwoLevelCache("patrons", Caffeine.newBuilder().maximumSize(100).build(),
+                new ConcurrentMapCache("patrons", true), (name, key) -> { }, meterRegistry);
+
+        // when
+        nullCache.put(1, null);
+
+        // then
+        assertThat(nullCache.get(1)).isNotNull();
+        assertThat(nullCache.get(1).get()).isNull();
+    }
+
+    @Test
+    void getWithLoader_ShouldLoadOnce_WhenCalledConcurrently() throws Exception {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> cache.get(1, () -> {
+                calls.incrementAndGet();
+                release.await();
+                return "Clean Code";
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        // then
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Clean Code");
+        }
+        executor.shutdown();
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("libms.cache.loads.coalesced").counter().count()).isGreaterThan(0);
+    }
+
+    @Test
+    void getWithLoader_ShouldPropagateLoaderFailure() {
+        // when & then
+        assertThrows(org.springframework.cache.Cache.ValueRetrievalException.class,
+                () -> cache.get(1, () -> { throw new IllegalStateException("boom"); }));
+        assertThat(remote.get(1)).isNull();
+    }
+
+    @Test
+    void getWithLoader_ShouldWaitForLeaseHolder_WhenLeaseTaken() throws Exception {
+        // given
+        TwoLevelCache leasedCache = new TwoLevelCache("books", Caffeine.newBuilder().maximumSize(100).build(),
+                remote, (name, key) -> { }, meterRegistry, new StubCoordinator(false, -1), KeyPresence.ANY, Runnable::run, 0);
+        AtomicInteger calls = new AtomicInteger();
+        Thread holder = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+                return;
+            }
+            remote.put(1, "Loaded Elsewhere");
+        });
+        holder.start();
+
+        // when
+        String value = leasedCache.get(1, () -> {
+            calls.incrementAndGet();
+            return "Clean Code";
+        });
+
+        // then
+        holder.join();
+        assertThat(value).isEqualTo("Loaded Elsewhere");
+        assertThat(calls.get()).isZero();
+    }
+
+    @Test
+    void getWithLoader_ShouldRefreshEarly_WhenRemoteEntryAboutToExpire() {
+        // given
+        TwoLevelCache refreshingCache = new TwoLevelCache("books", Caffeine.newBuilder().maximumSize(100).build(),
+                remote, (name, key) -> { }, meterRegistry, new StubCoordinator(true, 0), KeyPresence.ANY, Runnable::run, 1.0);
+        refreshingCache.get(1, () -> "Clean Code");
+        refreshingCache.evictLocal("1");
+
+        // when
+        String value = refreshingCache.get(1, () -> "Clean Code, 2nd Edition");
+
+        // then
+        assertThat(value).isEqualTo("Clean Code");
+        assertThat(remote.get(1).get()).isEqualTo("Clean Code, 2nd Edition");
+        assertThat(meterRegistry.get("libms.cache.refreshes.early").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_ShouldSkipRemote_WhenKeyCannotExist() {
+        // given
+        KeyPresence nothingPresent = new KeyPresence() {
+            @Override
+            public boolean mightContain(String key) {
+                return false;
+            }
+
+            @Override
+            public void add(String key) {
+            }
+        };
+        TwoLevelCache filteredCache = new TwoLevelCache("books", Caffeine.newBuilder().maximumSize(100).build(),
+                remote, (name, key) -> { }, meterRegistry, CacheLoadCoordinator.LOCAL, nothingPresent, Runnable::run, 0);
+        remote.put(1, "Clean Code");
+
+        // when
+        org.springframework.cache.Cache.ValueWrapper value = filteredCache.get(1);
+
+        // then
+        assertThat(value).isNull();
+        assertThat(meterRegistry.find("libms.cache.redis.latency").tag("operation", "get").timer().count())
+                .isZero();
+    }
+
+    private record StubCoordinator(boolean leaseGranted, long remainingTtlMillis) implements CacheLoadCoordinator {
+        @Override
+        public boolean tryLease(String key) {
+            return leaseGranted;
+        }
+
+        @Override
+        public void releaseLease(String key) {
+        }
+
+        @Override
+        public Duration leaseWait() {
+            return Duration.ofSeconds(2);
+        }
+
+        @Override
+        public long remainingTtlMillis(String key) {
+            return remainingTtlMillis;
+        }
+    }
+
+    private double gets(String result, String level) {
+        return meterRegistry.get("libms.cache.gets")
+                .tag("cache", "books")
+                .tag("result", result)
+                .tag("level", level)
+                .counter().count();
+    }
+}
@@ -0,0 +1,194 @@
+package com.maids.libms.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+    private static final String LAG_QUERY = "select lag_ms from replication_status";
+
+    private final JdbcTemplate primaryJdbc = new JdbcTemplate(node("routing_primary"));
+    private final JdbcTemplate replicaJdbc = new JdbcTemplate(node("routing_replica"));
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    private static DataSource node(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    @BeforeEach
+    void setUp() {
+        for (JdbcTemplate node : List.of(primaryJdbc, replicaJdbc)) {
+            node.execute("create table node (name varchar(20))");
+            node.execute("create table replication_status (lag_ms bigint)");
+            node.update("insert into replication_status values (0)");
+        }
+        primaryJdbc.update("insert into node values ('primary')");
+        replicaJdbc.update("insert into node values ('replica')");
+
+        routingDataSource = new ReplicaRoutingDataSource(primaryJdbc.getDataSource(),
+                List.of(replicaJdbc.getDataSource()), Duration.ofSeconds(5), Duration.ofSeconds(5), LAG_QUERY);
+        routingDataSource.checkReplicas();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        for (JdbcTemplate node : List.of(primaryJdbc, replicaJdbc)) {
+            node.execute("drop table node");
+            node.execute("drop table replication_status");
+        }
+    }
+
+    private String nodeName(TransactionTemplate transactionTemplate) {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+
+    private static void authenticateAs(String user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, List.of()));
+    }
+
+    @Test
+    void readOnlyTransaction_shouldUseReplica() {
+        // when / then
+        assertThat(nodeName(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void writesAndNonTransactionalWork_shouldUsePrimary() {
+        // when / then
+        assertThat(nodeName(readWrite)).isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject("select name from node", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_shouldStayOnPrimaryShortlyAfterSameUserWrote() {
+        // given
+        authenticateAs("alice@example.com");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("update node set name = name"));
+
+        // when
+        String aliceReads = nodeName(readOnly);
+        authenticateAs("bob@example.com");
+        String bobReads = nodeName(readOnly);
+
+        // then
+        assertThat(aliceReads).isEqualTo("primary");
+        assertThat(bobReads).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransactionThatOnlyRead_shouldNotMakeUserSticky() {
+        // given
+        authenticateAs("alice@example.com");
+        String writeTransactionReads = nodeName(readWrite);
+
+        // when
+        String aliceReads = nodeName(readOnly);
+
+        // then
+        assertThat(writeTransactionReads).isEqualTo("primary");
+        assertThat(aliceReads).isEqualTo("replica");
+    }
+
+    @Test
+    void rolledBackWrite_shouldNotMakeUserSticky() {
+        // given
+        authenticateAs("alice@example.com");
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("update node set name = name");
+            status.setRollbackOnly();
+        });
+
+        // when
+        String aliceReads = nodeName(readOnly);
+
+        // then
+        assertThat(aliceReads).isEqualTo("replica");
+    }
+
+    @Test
+    void writeOutsideTransaction_shouldMakeUserStickyAtOnce() {
+        // given
+        authenticateAs("alice@example.com");
+        jdbcTemplate.update("update node set name = name");
+
+        // when
+        String aliceReads = nodeName(readOnly);
+
+        // then
+        assertThat(aliceReads).isEqualTo("primary");
+    }
+
+    @Test
+    void isWrite_shouldTellReadsFromWrites() {
+        // when / then
+        assertThat(ReplicaRoutingDataSource.isWrite("/* load Book */ select b.id from book b")).isFalse();
+        assertThat(ReplicaRoutingDataSource.isWrite("  SELECT nextval('book_seq')")).isFalse();
+        assertThat(ReplicaRoutingDataSource.isWrite("insert into book (id) values (?)")).isTrue();
+        assertThat(ReplicaRoutingDataSource.isWrite("update book set title = ? where id = ?")).isTrue();
+        assertThat(ReplicaRoutingDataSource.isWrite("selection_cleanup()")).isTrue();
+    }
+
+    @Test
+    void laggingReplica_shouldBeSkippedUntilCaughtUp() {
+        // given
+        replicaJdbc.update("update replication_status set lag_ms = 60000");
+
+        // when
+        routingDataSource.checkReplicas();
+
+        // then
+        assertThat(routingDataSource.availableReplicas()).isEmpty();
+        assertThat(nodeName(readOnly)).isEqualTo("primary");
+
+        // when
+        replicaJdbc.update("update replication_status set lag_ms = 100");
+        routingDataSource.checkReplicas();
+
+        // then
+        assertThat(routingDataSource.availableReplicas()).containsExactly("replica-1");
+        assertThat(nodeName(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void unreachableReplica_shouldFallBackToPrimary() {
+        // given
+        DataSource unreachable = new DriverManagerDataSource("jdbc:h2:mem:routing_missing;IFEXISTS=TRUE", "sa", "");
+        routingDataSource = new ReplicaRoutingDataSource(primaryJdbc.getDataSource(), List.of(unreachable),
+                Duration.ofSeconds(5), Duration.ofSeconds(5), LAG_QUERY);
+        jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(routingDataSource));
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        readOnly.setReadOnly(true);
+
+        // when
+        routingDataSource.checkReplicas();
+
+        // then
+        assertThat(routingDataSource.availableReplicas()).isEmpty();
+        assertThat(nodeName(readOnly)).isEqualTo("primary");
+    }
+}
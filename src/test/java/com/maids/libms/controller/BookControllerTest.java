@@ -1,7 +1,12 @@
 package com.maids.libms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maids.libms.cache.ResponseBodyCache;
+import com.maids.libms.dto.BookView;
+import com.maids.libms.dto.CursorSlice;
 import com.maids.libms.model.Book;
 import com.maids.libms.service.BookService;
+import com.maids.libms.util.KeysetCursor;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,18 +14,36 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,34 +69,172 @@ class BookControllerTest {
     }
 
     @Test
-    void findAll_ShouldReturnBooksPaginated() {
+    void findAll_ShouldReturnBookViewsPaginated() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Book> expectedPage = new PageImpl<>(List.of(testBook));
-        when(bookService.findAll(any(Pageable.class))).thenReturn(expectedPage);
+        Page<BookView> expectedPage = new PageImpl<>(List.of(new BookView(1, testBook.getIsbn(),
+                testBook.getTitle(), testBook.getAuthor(), null, testBook.getPublicationYear())));
+        when(bookService.findAll(pageable, BookView.class)).thenReturn(expectedPage);
 
         // Act
-        ResponseEntity<?> response = bookController.findAll(pageable, false);
+        ResponseEntity<?> response = bookController.findAll(pageable, null);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(expectedPage);
-        verify(bookService).findAll(pageable);
+        verify(bookService, never()).findAll(any(Pageable.class));
     }
 
     @Test
-    void findAll_ShouldReturnAllBooksWhenUnpaged() {
+    void findAll_ShouldSelectOnlyRequestedFieldsPlusId() {
         // Arrange
-        List<Book> expectedBooks = List.of(testBook);
-        when(bookService.findAll()).thenReturn(expectedBooks);
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Map<String, Object>> expectedPage = new PageImpl<>(List.of(Map.of("id", 1, "title", "Effective Java")));
+        when(bookService.findAll(pageable, List.of("id", "title"))).thenReturn(expectedPage);
+
+        // Act
+        ResponseEntity<?> response = bookController.findAll(pageable, List.of("title"));
+
+        // Assert
+        assertThat(response.getBody()).isEqualTo(expectedPage);
+    }
+
+    @Test
+    void findAll_ShouldRejectUnknownFields() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> bookController.findAll(PageRequest.of(0, 10), List.of("title", "borrowRecords")));
+        verifyNoInteractions(bookService);
+    }
+
+    private static void stubForEach(BookService service, Book... books) {
+        doAnswer(invocation -> {
+            Consumer<Book> action = invocation.getArgument(0);
+            List.of(books).forEach(action);
+            return null;
+        }).when(service).forEach(any());
+    }
+
+    @Test
+    void streamAll_ShouldStreamJsonArrayWhenUnpaged() throws Exception {
+        // Arrange
+        bookController.setObjectMapper(new ObjectMapper());
+        Book second = Book.builder().isbn("9780134685991").title("Effective Java 3").author("Joshua Bloch")
+                .publicationYear(2018).build();
+        second.setId(2);
+        stubForEach(bookService, testBook, second);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = bookController.streamAll(null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        Book[] books = new ObjectMapper().readValue(out.toByteArray(), Book[].class);
+        assertThat(books).extracting(Book::getId).containsExactly(1, 2);
+        verify(bookService, never()).findAll();
+    }
+
+    @Test
+    void streamAll_ShouldStreamGzippedNdjsonWhenAccepted() throws Exception {
+        // Arrange
+        bookController.setObjectMapper(new ObjectMapper());
+        stubForEach(bookService, testBook, testBook);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response =
+                bookController.streamAll("application/x-ndjson", "gzip, deflate");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        String body = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        String[] lines = body.split("\n");
+        assertThat(body).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(new ObjectMapper().readValue(lines[1], Book.class).getIsbn()).isEqualTo(testBook.getIsbn());
+    }
+
+    @Test
+    void findAfter_ShouldStartWalkAndReturnCursorForNextSlice() {
+        // Arrange
+        ReflectionTestUtils.setField(bookController, "maxPageSize", 2000);
+        Sort sort = Sort.by("title");
+        Window<Book> window = Window.from(List.of(testBook),
+                index -> ScrollPosition.forward(Map.of("title", "Effective Java", "id", 1)), true);
+        when(bookService.findAfter(sort, Map.of(), 1)).thenReturn(window);
+
+        // Act
+        ResponseEntity<CursorSlice<Book>> response = bookController.findAfter("", 1, sort);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        CursorSlice<Book> slice = response.getBody();
+        assertThat(slice.getContent()).containsExactly(testBook);
+        assertThat(slice.isHasNext()).isTrue();
+        KeysetCursor next = KeysetCursor.decode(slice.getNextCursor());
+        assertThat(next.sort()).isEqualTo(sort);
+        assertThat(next.keys()).containsExactlyInAnyOrderEntriesOf(Map.of("title", "Effective Java", "id", 1));
+    }
+
+    @Test
+    void findAfter_ShouldContinueFromCursorInItsSortOrder() {
+        // Arrange
+        ReflectionTestUtils.setField(bookController, "maxPageSize", 2000);
+        Sort sort = Sort.by(Sort.Direction.DESC, "publicationYear");
+        Map<String, Object> keys = Map.of("publicationYear", 2018, "id", 1);
+        String after = new KeysetCursor(sort, keys).encode();
+        when(bookService.findAfter(sort, keys, 20))
+                .thenReturn(Window.from(List.of(testBook), index -> ScrollPosition.keyset(), false));
+
+        // Act
+        ResponseEntity<CursorSlice<Book>> response = bookController.findAfter(after, 20, Sort.unsorted());
+
+        // Assert
+        assertThat(response.getBody().isHasNext()).isFalse();
+        assertThat(response.getBody().getNextCursor()).isNull();
+        verify(bookService).findAfter(sort, keys, 20);
+    }
+
+    @Test
+    void findAfter_ShouldRejectSortOutsideAllowlist() {
+        // Arrange
+        ReflectionTestUtils.setField(bookController, "maxPageSize", 2000);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> bookController.findAfter("", 20, Sort.by("description")));
+        assertThrows(IllegalArgumentException.class,
+                () -> bookController.findAfter("not-a-cursor", 20, Sort.unsorted()));
+        verify(bookService, never()).findAfter(any(), any(), anyInt());
+    }
+
+    @Test
+    void findAllById_ShouldReturnRequestedBooks() {
+        // Arrange
+        ReflectionTestUtils.setField(bookController, "maxIds", 100);
+        when(bookService.findAllById(List.of(1, 2))).thenReturn(List.of(testBook));
 
         // Act
-        ResponseEntity<?> response = bookController.findAll(Pageable.unpaged(), true);
+        ResponseEntity<List<Book>> response = bookController.findAllById(List.of(1, 2));
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody()).isEqualTo(expectedBooks);
-        verify(bookService).findAll();
+        assertThat(response.getBody()).containsExactly(testBook);
+    }
+
+    @Test
+    void findAllById_ShouldRejectTooManyIds() {
+        // Arrange
+        ReflectionTestUtils.setField(bookController, "maxIds", 2);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> bookController.findAllById(List.of(1, 2, 3)));
+        verifyNoInteractions(bookService);
     }
 
     @Test
@@ -82,7 +243,7 @@ class BookControllerTest {
         when(bookService.findById(1)).thenReturn(testBook);
 
         // Act
-        ResponseEntity<Book> response = bookController.findById(1);
+        ResponseEntity<?> response = bookController.findById(1, webRequest());
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -96,10 +257,58 @@ class BookControllerTest {
         when(bookService.findById(999)).thenThrow(new EntityNotFoundException("Book not found"));
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> bookController.findById(999));
+        assertThrows(EntityNotFoundException.class, () -> bookController.findById(999, webRequest()));
         verify(bookService).findById(999);
     }
 
+    @Test
+    void findById_ShouldServeCachedJsonBytesWithEtag() throws Exception {
+        // Arrange
+        ObjectMapper objectMapper = new ObjectMapper();
+        bookController.setResponseBodyCache(new ResponseBodyCache(new ConcurrentMapCacheManager(), objectMapper));
+        when(bookService.findById(1)).thenReturn(testBook);
+
+        // Act
+        ResponseEntity<?> first = bookController.findById(1, webRequest());
+        ResponseEntity<?> second = bookController.findById(1, webRequest());
+
+        // Assert
+        byte[] expected = objectMapper.writeValueAsBytes(testBook);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(second.getHeaders().getETag()).isEqualTo(ResponseBodyCache.etag(expected));
+        assertThat((byte[]) second.getBody()).isEqualTo(expected).isSameAs(first.getBody());
+        verify(bookService, times(1)).findById(1);
+    }
+
+    @Test
+    void findById_ShouldReturnNotModifiedWhenEtagMatches() {
+        // Arrange
+        bookController.setResponseBodyCache(new ResponseBodyCache(new ConcurrentMapCacheManager(), new ObjectMapper()));
+        when(bookService.findById(1)).thenReturn(testBook);
+        String etag = bookController.findById(1, webRequest()).getHeaders().getETag();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        // Act
+        ResponseEntity<?> response = bookController.findById(1, new ServletWebRequest(request, servletResponse));
+
+        // Assert
+        assertThat(response).isNull();
+        assertThat(servletResponse.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @Test
+    void findById_ShouldPropagateNotFoundFromCachedPath() {
+        // Arrange
+        bookController.setResponseBodyCache(new ResponseBodyCache(new ConcurrentMapCacheManager(), new ObjectMapper()));
+        when(bookService.findById(999)).thenThrow(new EntityNotFoundException("Book not found"));
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> bookController.findById(999, webRequest()));
+    }
+
     @Test
     void create_ShouldReturnCreatedBook() {
         // Arrange
@@ -145,4 +354,8 @@ class BookControllerTest {
         assertThat(response.getBody()).isEqualTo("Done.");
         verify(bookService).delete(1);
     }
-}
\ No newline at end of file
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest());
+    }
+}
@@ -1,5 +1,6 @@
 package com.maids.libms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.maids.libms.model.BorrowRecord;
 import com.maids.libms.service.BorrowService;
 import jakarta.persistence.EntityNotFoundException;
@@ -15,9 +16,16 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -55,7 +63,7 @@ class BorrowControllerTest {
         when(borrowService.findAll(any(Pageable.class))).thenReturn(expectedPage);
 
         // Act
-        ResponseEntity<?> response = borrowController.findAll(pageable, false);
+        ResponseEntity<?> response = borrowController.findAll(pageable, null);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -64,18 +72,25 @@ class BorrowControllerTest {
     }
 
     @Test
-    void findAll_ShouldReturnAllRecordsWhenUnpaged() {
+    void streamAll_ShouldStreamJsonArrayWhenUnpaged() throws Exception {
         // Arrange
-        List<BorrowRecord> expectedRecords = List.of(testRecord);
-        when(borrowService.findAll()).thenReturn(expectedRecords);
+        borrowController.setObjectMapper(new ObjectMapper().findAndRegisterModules());
+        doAnswer(invocation -> {
+            Consumer<BorrowRecord> action = invocation.getArgument(0);
+            action.accept(testRecord);
+            return null;
+        }).when(borrowService).forEach(any());
 
         // Act
-        ResponseEntity<?> response = borrowController.findAll(Pageable.unpaged(), true);
+        ResponseEntity<StreamingResponseBody> response = borrowController.streamAll(null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody()).isEqualTo(expectedRecords);
-        verify(borrowService).findAll();
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).startsWith("[").endsWith("]").contains("\"id\":1");
+        verify(borrowService, never()).findAll();
     }
 
     @Test
@@ -84,7 +99,7 @@ class BorrowControllerTest {
         when(borrowService.findById(BORROW_ID)).thenReturn(testRecord);
 
         // Act
-        ResponseEntity<BorrowRecord> response = borrowController.findById(BORROW_ID);
+        ResponseEntity<?> response = borrowController.findById(BORROW_ID, webRequest());
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -98,7 +113,7 @@ class BorrowControllerTest {
         when(borrowService.findById(999)).thenThrow(new EntityNotFoundException("Record not found"));
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> borrowController.findById(999));
+        assertThrows(EntityNotFoundException.class, () -> borrowController.findById(999, webRequest()));
         verify(borrowService).findById(999);
     }
 
@@ -209,4 +224,48 @@ class BorrowControllerTest {
         assertThrows(IllegalStateException.class,
                 () -> borrowController.borrowBook(BOOK_ID, PATRON_ID));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createAll_ShouldRejectBatchOfBorrowRecords() {
+        // Act
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> borrowController.createAll(List.of(testRecord)));
+
+        // Assert
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.METHOD_NOT_ALLOWED);
+        verifyNoInteractions(borrowService);
+    }
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest());
+    }
+
+    @Test
+    void findByPatron_ShouldReturnBorrowHistory() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 20);
+        Page<BorrowRecord> history = new PageImpl<>(List.of(testRecord));
+        when(borrowService.findByPatron(PATRON_ID, pageable)).thenReturn(history);
+
+        // Act
+        ResponseEntity<Page<BorrowRecord>> response = borrowController.findByPatron(PATRON_ID, pageable);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isSameAs(history);
+    }
+
+    @Test
+    void findByBook_ShouldReturnBorrowHistory() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 20);
+        Page<BorrowRecord> history = new PageImpl<>(List.of(testRecord));
+        when(borrowService.findByBook(BOOK_ID, pageable)).thenReturn(history);
+
+        // Act
+        ResponseEntity<Page<BorrowRecord>> response = borrowController.findByBook(BOOK_ID, pageable);
+
+        // Assert
+        assertThat(response.getBody()).isSameAs(history);
+    }
+}
@@ -1,5 +1,7 @@
 package com.maids.libms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maids.libms.dto.PatronView;
 import com.maids.libms.model.Patron;
 import com.maids.libms.service.PatronService;
 import jakarta.persistence.EntityNotFoundException;
@@ -15,8 +17,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -49,34 +57,43 @@ class PatronControllerTest {
     }
 
     @Test
-    void findAll_ShouldReturnPatronsPaginated() {
+    void findAll_ShouldReturnPatronViewsPaginated() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Patron> expectedPage = new PageImpl<>(List.of(testPatron));
-        when(patronService.findAll(any(Pageable.class))).thenReturn(expectedPage);
+        Page<PatronView> expectedPage = new PageImpl<>(List.of(new PatronView(1, testPatron.getName(),
+                testPatron.getAddress(), testPatron.getPostNo(), testPatron.getCity(), testPatron.getEmail(),
+                testPatron.getPhoneNo())));
+        when(patronService.findAll(pageable, PatronView.class)).thenReturn(expectedPage);
 
         // Act
-        ResponseEntity<?> response = patronController.findAll(pageable, false);
+        ResponseEntity<?> response = patronController.findAll(pageable, null);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(expectedPage);
-        verify(patronService).findAll(pageable);
+        verify(patronService, never()).findAll(any(Pageable.class));
     }
 
     @Test
-    void findAll_ShouldReturnAllPatronsWhenUnpaged() {
+    void streamAll_ShouldStreamJsonArrayWhenUnpaged() throws Exception {
         // Arrange
-        List<Patron> expectedPatrons = List.of(testPatron);
-        when(patronService.findAll()).thenReturn(expectedPatrons);
+        patronController.setObjectMapper(new ObjectMapper().findAndRegisterModules());
+        doAnswer(invocation -> {
+            Consumer<Patron> action = invocation.getArgument(0);
+            action.accept(testPatron);
+            return null;
+        }).when(patronService).forEach(any());
 
         // Act
-        ResponseEntity<?> response = patronController.findAll(Pageable.unpaged(), true);
+        ResponseEntity<StreamingResponseBody> response = patronController.streamAll(null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody()).isEqualTo(expectedPatrons);
-        verify(patronService).findAll();
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).startsWith("[").endsWith("]").contains("\"email\"");
+        verify(patronService, never()).findAll();
     }
 
     @Test
@@ -85,7 +102,7 @@ class PatronControllerTest {
         when(patronService.findById(1)).thenReturn(testPatron);
 
         // Act
-        ResponseEntity<Patron> response = patronController.findById(1);
+        ResponseEntity<?> response = patronController.findById(1, webRequest());
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -99,7 +116,7 @@ class PatronControllerTest {
         when(patronService.findById(999)).thenThrow(new EntityNotFoundException("Patron not found"));
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> patronController.findById(999));
+        assertThrows(EntityNotFoundException.class, () -> patronController.findById(999, webRequest()));
         verify(patronService).findById(999);
     }
 
@@ -149,4 +166,8 @@ class PatronControllerTest {
         assertThat(response.getBody()).isEqualTo("Done.");
         verify(patronService).delete(1);
     }
-}
\ No newline at end of file
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest());
+    }
+}
@@ -0,0 +1,218 @@
+package com.maids.libms.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maids.libms.config.JacksonConfig;
+import com.maids.libms.model.Book;
+import com.maids.libms.model.BorrowRecord;
+import com.maids.libms.model.Patron;
+import com.maids.libms.repository.BookRepository;
+import com.maids.libms.repository.BorrowRecordRepository;
+import com.maids.libms.repository.PatronRepository;
+import com.maids.libms.service.BookService;
+import com.maids.libms.service.BorrowService;
+import com.maids.libms.service.PatronService;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.SortHandlerMethodArgumentResolver;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Calls every GET endpoint of the entity controllers against real services and repositories
+ * with no session open around the request, as with {@code spring.jpa.open-in-view=false}: the
+ * test itself runs outside a transaction and the standalone MockMvc registers no
+ * open-session-in-view interceptor. Each response must serialize without touching an
+ * uninitialized association. Endpoints are discovered from the controllers' mappings, so new
+ * ones are covered without changing this test.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ResponseSerializationWithoutOpenSessionTest {
+
+    @TestConfiguration
+    static class Services {
+        @Bean
+        BookService bookService(BookRepository repository) {
+            return new BookService(repository);
+        }
+
+        @Bean
+        PatronService patronService(PatronRepository repository) {
+            return new PatronService(repository);
+        }
+
+        @Bean
+        BorrowService borrowService(BorrowRecordRepository repository, BookService bookService,
+                                    PatronService patronService) {
+            return new BorrowService(repository, null, bookService, patronService);
+        }
+    }
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private PatronService patronService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    private Book book;
+    private Patron patron;
+    private BorrowRecord borrowRecord;
+
+    @BeforeEach
+    void setUp() {
+        book = bookRepository.save(Book.builder()
+                .isbn("978-0-7475-3269-9")
+                .title("Harry Potter and the Philosopher's Stone")
+                .author("J.K. Rowling")
+                .publicationYear(1997)
+                .build());
+        patron = patronRepository.save(Patron.builder()
+                .name("John Doe")
+                .address("123 Main Street")
+                .postNo("12345")
+                .city("Anytown")
+                .email("john.doe@example.com")
+                .phoneNo("+1-555-123-4567")
+                .build());
+        borrowRecord = borrowRecordRepository.save(BorrowRecord.builder()
+                .book(book)
+                .patron(patron)
+                .borrowingDate(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        borrowRecordRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        patronRepository.deleteAllInBatch();
+    }
+
+    private <C extends BaseController<?, ?>> C configured(C controller) {
+        controller.setObjectMapper(objectMapper);
+        ReflectionTestUtils.setField(controller, "maxIds", 100);
+        ReflectionTestUtils.setField(controller, "maxPageSize", 2000);
+        return controller;
+    }
+
+    /**
+     * One request per GET mapping of {@code controller}, with path variables and required
+     * parameters filled in from the saved rows.
+     */
+    private List<MockHttpServletRequestBuilder> getRequests(Object controller, Integer ownId) {
+        RequestMapping classMapping = AnnotatedElementUtils.findMergedAnnotation(controller.getClass(), RequestMapping.class);
+        String prefix = classMapping != null && classMapping.path().length > 0 ? classMapping.path()[0] : "";
+        Map<String, String> variables = Map.of(
+                "{id}", String.valueOf(ownId),
+                "{bookId}", String.valueOf(book.getId()),
+                "{patronId}", String.valueOf(patron.getId()));
+
+        List<MockHttpServletRequestBuilder> requests = new ArrayList<>();
+        for (Method method : controller.getClass().getMethods()) {
+            GetMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, GetMapping.class);
+            if (mapping == null || method.isBridge()) {
+                continue;
+            }
+            String path = prefix + (mapping.path().length > 0 ? mapping.path()[0] : "");
+            for (Map.Entry<String, String> variable : variables.entrySet()) {
+                path = path.replace(variable.getKey(), variable.getValue());
+            }
+            MockHttpServletRequestBuilder request = get(path);
+            for (String param : mapping.params()) {
+                String[] nameAndValue = param.split("=", 2);
+                String value = nameAndValue.length > 1 ? nameAndValue[1]
+                        : nameAndValue[0].equals("ids") ? String.valueOf(ownId) : "";
+                request.param(nameAndValue[0], value);
+            }
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    @Test
+    void lazyCollection_shouldFailOutsideTransaction() {
+        // given
+        Book loaded = bookRepository.findById(book.getId()).orElseThrow();
+
+        // when / then
+        assertThatThrownBy(() -> loaded.getBorrowRecords().size())
+                .isInstanceOf(LazyInitializationException.class);
+    }
+
+    @Test
+    void everyGetEndpoint_shouldSerializeItsResponseWithoutOpenSession() throws Exception {
+        // given
+        MappingJackson2HttpMessageConverter jsonConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+        Map<Object, Integer> controllers = Map.of(
+                configured(new BookController(bookService, null)), book.getId(),
+                configured(new PatronController(patronService, null)), patron.getId(),
+                configured(new BorrowController(borrowService)), borrowRecord.getId());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controllers.keySet().toArray())
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver(),
+                        new SortHandlerMethodArgumentResolver())
+                .setMessageConverters(new HttpMessageConverter<?>[]{jsonConverter})
+                .build();
+
+        List<String> checked = new ArrayList<>();
+        for (Map.Entry<Object, Integer> controller : controllers.entrySet()) {
+            for (MockHttpServletRequestBuilder request : getRequests(controller.getKey(), controller.getValue())) {
+                // when
+                MvcResult result = mockMvc.perform(request).andReturn();
+                if (result.getRequest().isAsyncStarted()) {
+                    result = mockMvc.perform(asyncDispatch(result)).andReturn();
+                }
+
+                // then
+                String query = result.getRequest().getQueryString();
+                String uri = result.getRequest().getRequestURI() + (query != null ? "?" + query : "");
+                assertThat(result.getResponse().getStatus()).as(uri).isEqualTo(200);
+                assertThat(result.getResponse().getContentAsString()).as(uri).isNotBlank();
+                checked.add(uri);
+            }
+        }
+        assertThat(checked).hasSizeGreaterThanOrEqualTo(15);
+    }
+}
@@ -1,14 +1,24 @@
 package com.maids.libms.repository;
 
+import com.maids.libms.dto.BookView;
 import com.maids.libms.model.Book;
+import com.maids.libms.service.BookService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @DataJpaTest
 class BookRepositoryTest {
@@ -140,4 +150,104 @@ class BookRepositoryTest {
         assertThat(books.size()).isGreaterThanOrEqualTo(2);
         assertThat(books).extracting(Book::getIsbn).contains(book1.getIsbn(), book2.getIsbn());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void shouldFindAllIds() {
+        // given
+        Book book = Book.builder()
+                .isbn("978-0-7475-3269-9")
+                .title("Harry Potter and the Philosopher's Stone")
+                .author("J.K. Rowling")
+                .description("The first book in the Harry Potter series")
+                .publicationYear(1997)
+                .build();
+
+        Book savedBook = entityManager.persist(book);
+        entityManager.flush();
+
+        // when
+        List<Integer> ids = bookRepository.findAllIds();
+
+        // then
+        assertThat(ids).containsExactly(savedBook.getId());
+    }
+
+    @Test
+    void shouldWalkBooksByTitleWithKeysetPositions() {
+        // given
+        List<String> titles = List.of("Clean Code", "Refactoring", "Refactoring", "Refactoring", "Working Effectively");
+        for (int i = 0; i < titles.size(); i++) {
+            entityManager.persist(Book.builder()
+                    .isbn("000000000" + i)
+                    .title(titles.get(i))
+                    .author("Author " + i)
+                    .publicationYear(2000 + i)
+                    .build());
+        }
+        entityManager.flush();
+        BookService bookService = new BookService(bookRepository);
+        Sort sort = Sort.by("title");
+
+        // when
+        List<Book> walked = new ArrayList<>();
+        Map<String, Object> keys = Map.of();
+        Window<Book> window;
+        do {
+            window = bookService.findAfter(sort, keys, 2);
+            walked.addAll(window.getContent());
+            if (!window.isEmpty()) {
+                keys = Map.copyOf(((KeysetScrollPosition) window.positionAt(window.size() - 1)).getKeys());
+            }
+        } while (window.hasNext());
+
+        // then
+        assertThat(walked).extracting(Book::getTitle).containsExactlyElementsOf(titles);
+        assertThat(walked).extracting(Book::getId).doesNotHaveDuplicates().isSorted();
+    }
+
+    @Test
+    void shouldFindPageOfBookViews() {
+        // given
+        Book book = entityManager.persist(Book.builder()
+                .isbn("978-0-7475-3269-9")
+                .title("Harry Potter and the Philosopher's Stone")
+                .author("J.K. Rowling")
+                .publicationYear(1997)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        Page<BookView> page = bookRepository.findAllBy(PageRequest.of(0, 10, Sort.by("title")), BookView.class);
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(page.getContent()).containsExactly(new BookView(book.getId(), book.getIsbn(), book.getTitle(),
+                book.getAuthor(), null, book.getPublicationYear()));
+    }
+
+    @Test
+    void shouldSelectOnlyRequestedFields() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(Book.builder()
+                    .isbn("000000000" + i)
+                    .title("Title " + i)
+                    .author("Author " + i)
+                    .publicationYear(2000 + i)
+                    .build());
+        }
+        entityManager.flush();
+        BookService bookService = new BookService(bookRepository);
+        ReflectionTestUtils.setField(bookService, "entityManager", entityManager.getEntityManager());
+
+        // when
+        Page<Map<String, Object>> page = bookService.findAll(
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "publicationYear")), List.of("id", "title"));
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(row -> row.get("title")).containsExactly("Title 2", "Title 1");
+        assertThat(page.getContent()).allSatisfy(row -> assertThat(row).containsOnlyKeys("id", "title"));
+    }
+}
@@ -3,12 +3,17 @@ package com.maids.libms.repository;
 import com.maids.libms.model.Book;
 import com.maids.libms.model.BorrowRecord;
 import com.maids.libms.model.Patron;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 
@@ -296,4 +301,112 @@ class BorrowRecordRepositoryTest {
         // Then
         assertThat(result).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRankBooksByRecentBorrows() {
+        // given
+        Book popularBook = createAndPersistBook();
+        Book otherBook = entityManager.persist(Book.builder()
+                .isbn("978-0-7475-3849-3")
+                .title("Harry Potter and the Chamber of Secrets")
+                .author("J.K. Rowling")
+                .publicationYear(1998)
+                .build());
+        Patron patron = createAndPersistPatron();
+
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(BorrowRecord.builder()
+                    .book(popularBook)
+                    .patron(patron)
+                    .borrowingDate(LocalDateTime.now().minusDays(i + 1))
+                    .returnDate(LocalDateTime.now().minusDays(i))
+                    .build());
+        }
+        entityManager.persist(BorrowRecord.builder()
+                .book(otherBook)
+                .patron(patron)
+                .borrowingDate(LocalDateTime.now().minusDays(1))
+                .build());
+        entityManager.persist(BorrowRecord.builder()
+                .book(otherBook)
+                .patron(patron)
+                .borrowingDate(LocalDateTime.now().minusDays(1))
+                .build());
+        entityManager.persist(BorrowRecord.builder()
+                .book(otherBook)
+                .patron(patron)
+                .borrowingDate(LocalDateTime.now().minusDays(90))
+                .returnDate(LocalDateTime.now().minusDays(80))
+                .build());
+        entityManager.flush();
+
+        // when
+        List<Integer> ranked = borrowRecordRepository.findMostBorrowedBookIds(
+                LocalDateTime.now().minusDays(30), PageRequest.of(0, 10));
+        List<Integer> top = borrowRecordRepository.findMostBorrowedBookIds(
+                LocalDateTime.now().minusDays(30), PageRequest.of(0, 1));
+
+        // then
+        assertThat(ranked).containsExactly(popularBook.getId(), otherBook.getId());
+        assertThat(top).containsExactly(popularBook.getId());
+        assertThat(borrowRecordRepository.findMostActivePatronIds(
+                LocalDateTime.now().minusDays(30), PageRequest.of(0, 10))).containsExactly(patron.getId());
+    }
+
+    @Test
+    void findAll_ShouldFetchBookAndPatronWithTheRecords() {
+        // given
+        Book book = createAndPersistBook();
+        Patron patron = createAndPersistPatron();
+        entityManager.persist(BorrowRecord.builder().book(book).patron(patron)
+                .borrowingDate(LocalDateTime.now().minusDays(2)).returnDate(LocalDateTime.now().minusDays(1)).build());
+        entityManager.persist(BorrowRecord.builder().book(book).patron(patron)
+                .borrowingDate(LocalDateTime.now()).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<BorrowRecord> records = borrowRecordRepository.findAll(PageRequest.of(0, 10)).getContent();
+
+        // then
+        assertThat(records).hasSize(2);
+        assertThat(records).allSatisfy(record -> {
+            assertThat(Hibernate.isInitialized(record.getBook())).isTrue();
+            assertThat(Hibernate.isInitialized(record.getPatron())).isTrue();
+        });
+    }
+
+    @Test
+    void findByPatronId_ShouldReturnHistoryNewestFirst() {
+        // given
+        Book book = createAndPersistBook();
+        Patron patron = createAndPersistPatron();
+        Patron otherPatron = entityManager.persist(Patron.builder()
+                .name("Jane Smith")
+                .address("456 Oak Avenue")
+                .postNo("67890")
+                .city("Othertown")
+                .email("jane.smith@example.com")
+                .phoneNo("+1-555-987-6543")
+                .build());
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int daysAgo = 3; daysAgo >= 1; daysAgo--) {
+            entityManager.persist(BorrowRecord.builder().book(book).patron(patron)
+                    .borrowingDate(now.minusDays(daysAgo)).returnDate(now.minusDays(daysAgo).plusHours(1)).build());
+        }
+        entityManager.persist(BorrowRecord.builder().book(book).patron(otherPatron).borrowingDate(now).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        Page<BorrowRecord> history = borrowRecordRepository.findByPatronId(patron.getId(),
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "borrowingDate")));
+
+        // then
+        assertThat(history.getTotalElements()).isEqualTo(3);
+        assertThat(history.getContent()).extracting(BorrowRecord::getBorrowingDate)
+                .containsExactly(now.minusDays(1), now.minusDays(2));
+        assertThat(history.getContent()).allSatisfy(record ->
+                assertThat(Hibernate.isInitialized(record.getBook())).isTrue());
+    }
+}
@@ -40,6 +40,31 @@ class PatronRepositoryTest {
         assertThat(savedPatron.getEmail()).isEqualTo(patron.getEmail());
     }
 
+    @Test
+    void shouldAssignConsecutiveSequenceIdsWhenSavingAll() {
+        // given
+        List<Patron> patrons = List.of("a", "b", "c").stream()
+                .map(suffix -> Patron.builder()
+                        .name("Patron " + suffix)
+                        .address("123 Main Street")
+                        .postNo("12345")
+                        .city("Anytown")
+                        .email(suffix + "@example.com")
+                        .phoneNo("+1-555-123-4567")
+                        .build())
+                .toList();
+
+        // when
+        List<Patron> saved = patronRepository.saveAll(patrons);
+        entityManager.flush();
+
+        // then
+        List<Integer> ids = saved.stream().map(Patron::getId).toList();
+        assertThat(ids).doesNotContainNull();
+        assertThat(ids.get(1)).isEqualTo(ids.get(0) + 1);
+        assertThat(ids.get(2)).isEqualTo(ids.get(0) + 2);
+    }
+
     @Test
     void shouldFindPatronById() {
         // given
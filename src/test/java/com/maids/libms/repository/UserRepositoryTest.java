@@ -2,10 +2,13 @@ package com.maids.libms.repository;
 
 import com.maids.libms.model.Role;
 import com.maids.libms.model.User;
+import com.maids.libms.model.UserChangedEvent;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +16,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
+@RecordApplicationEvents
 class UserRepositoryTest {
 
     @Autowired
@@ -21,6 +25,9 @@ class UserRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
     @Test
     void shouldSaveUser() {
         // given
@@ -185,4 +192,41 @@ class UserRepositoryTest {
         assertThat(user.isCredentialsNonExpired()).isTrue();
         assertThat(user.isEnabled()).isTrue();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void shouldPublishUserChangedEvent_WhenUserSaved() {
+        // given
+        User user = User.builder()
+                .email("admin@example.com")
+                .password("password123")
+                .role(Role.ROLE_ADMIN)
+                .build();
+
+        // when
+        userRepository.save(user);
+
+        // then
+        assertThat(applicationEvents.stream(UserChangedEvent.class))
+                .containsExactly(new UserChangedEvent("admin@example.com", null));
+    }
+
+    @Test
+    void shouldRevokeCurrentTokenVersion_WhenRoleChanged() {
+        // given
+        User user = User.builder()
+                .email("user@example.com")
+                .password("password123")
+                .role(Role.ROLE_USER)
+                .build();
+        User savedUser = entityManager.persistAndFlush(user);
+
+        // when
+        savedUser.setRole(Role.ROLE_ADMIN);
+        userRepository.save(savedUser);
+
+        // then
+        assertThat(savedUser.getTokenVersion()).isEqualTo(1);
+        assertThat(applicationEvents.stream(UserChangedEvent.class))
+                .containsExactly(new UserChangedEvent("user@example.com", 0));
+    }
+}
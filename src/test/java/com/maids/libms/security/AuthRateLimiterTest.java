@@ -0,0 +1,52 @@
+package com.maids.libms.security;
+
+import com.maids.libms.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AuthRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new AuthRateLimiter(meterRegistry);
+        ReflectionTestUtils.setField(rateLimiter, "windowSeconds", 60L);
+        ReflectionTestUtils.setField(rateLimiter, "maxPerEmail", 3);
+        ReflectionTestUtils.setField(rateLimiter, "maxPerIp", 5);
+        ReflectionTestUtils.setField(rateLimiter, "maxKeys", 100L);
+        rateLimiter.init();
+    }
+
+    @Test
+    void acquire_ShouldReject_WhenEmailLimitExceeded() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("User@Example.com", "10.0.0.1");
+        }
+
+        // when & then
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire("user@example.com", "10.0.0.2"));
+        assertThat(meterRegistry.get("auth.rate-limit.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void acquire_ShouldReject_WhenIpLimitExceeded() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.acquire("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        // when & then
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire("other@example.com", "10.0.0.1"));
+        assertDoesNotThrow(() -> rateLimiter.acquire("other@example.com", "10.0.0.2"));
+    }
+}
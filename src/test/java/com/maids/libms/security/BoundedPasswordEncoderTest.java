@@ -0,0 +1,95 @@
+package com.maids.libms.security;
+
+import com.maids.libms.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_ShouldDelegate() {
+        // given
+        encoder = new BoundedPasswordEncoder(new PlainTextEncoder(null), 1, 4, Duration.ofSeconds(1), meterRegistry);
+
+        // when
+        String encoded = encoder.encode("password");
+
+        // then
+        assertThat(encoded).isEqualTo("password");
+        assertThat(encoder.matches("password", encoded)).isTrue();
+        assertThat(meterRegistry.get("auth.password.hash").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void encode_ShouldReject_WhenPoolSaturated() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(new PlainTextEncoder(release), 1, 0, Duration.ofSeconds(5), meterRegistry);
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        waitUntilActive();
+
+        // when & then
+        assertThrows(TooManyRequestsException.class, () -> encoder.encode("second"));
+        assertThat(meterRegistry.get("auth.password.hash.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(busy.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+    }
+
+    @Test
+    void encode_ShouldReject_WhenHashingTimesOut() {
+        // given
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(new PlainTextEncoder(neverReleased), 1, 0, Duration.ofMillis(50), meterRegistry);
+
+        // when & then
+        assertThrows(TooManyRequestsException.class, () -> encoder.encode("password"));
+    }
+
+    private void waitUntilActive() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("auth.password.hash.active").gauge().value() < 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private record PlainTextEncoder(CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.maids.libms.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIpResolverTest {
+
+    private ClientIpResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new ClientIpResolver();
+        ReflectionTestUtils.setField(resolver, "trustedProxies", List.of("10.0.0.0/24", "192.168.1.5"));
+        resolver.init();
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader(ClientIpResolver.FORWARDED_FOR, forwardedFor);
+        }
+        return request;
+    }
+
+    @Test
+    void resolve_ShouldUseForwardedClient_WhenRequestComesFromGateway() {
+        // when
+        String clientIp = resolver.resolve(request("10.0.0.7", "203.0.113.9"));
+
+        // then
+        assertThat(clientIp).isEqualTo("203.0.113.9");
+    }
+
+    @Test
+    void resolve_ShouldIgnoreForwardedHeader_WhenRequestBypassesGateway() {
+        // when
+        String clientIp = resolver.resolve(request("198.51.100.4", "203.0.113.9"));
+
+        // then
+        assertThat(clientIp).isEqualTo("198.51.100.4");
+    }
+
+    @Test
+    void resolve_ShouldIgnoreAddressesSpoofedByClient() {
+        // given: the client sent its own X-Forwarded-For, the gateways appended to it
+        MockHttpServletRequest request = request("10.0.0.7", "1.2.3.4, 203.0.113.9, 192.168.1.5");
+
+        // when
+        String clientIp = resolver.resolve(request);
+
+        // then
+        assertThat(clientIp).isEqualTo("203.0.113.9");
+    }
+
+    @Test
+    void resolve_ShouldUseRemoteAddress_WhenNoProxyTrusted() {
+        // given
+        ReflectionTestUtils.setField(resolver, "trustedProxies", List.of());
+        resolver.init();
+
+        // when
+        String clientIp = resolver.resolve(request("10.0.0.7", "203.0.113.9"));
+
+        // then
+        assertThat(clientIp).isEqualTo("10.0.0.7");
+    }
+
+    @Test
+    void resolve_ShouldNotTrustHostNames() {
+        // when
+        String clientIp = resolver.resolve(request("10.0.0.7", "203.0.113.9, localhost"));
+
+        // then
+        assertThat(clientIp).isEqualTo("localhost");
+    }
+}
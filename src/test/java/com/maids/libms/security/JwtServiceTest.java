@@ -0,0 +1,149 @@
+package com.maids.libms.security;
+
+import com.maids.libms.model.Role;
+import com.maids.libms.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtServiceTest {
+
+    private JwtService jwtService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newJwtService(3600000);
+
+        testUser = User.builder()
+                .email("user@example.com")
+                .password("encodedPassword")
+                .role(Role.ROLE_USER)
+                .build();
+    }
+
+    private JwtService newJwtService(long expiration) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", "secret-123456789-qwertyuiop-123456789-zxcvbnm-123456789");
+        ReflectionTestUtils.setField(service, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 86400000L);
+        ReflectionTestUtils.setField(service, "verifiedCacheMaxSize", 100L);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void verifyToken_ShouldReturnClaims_WhenTokenValid() {
+        // given
+        String token = jwtService.generateToken(testUser);
+
+        // when
+        Claims claims = jwtService.verifyToken(token);
+
+        // then
+        assertThat(claims.getSubject()).isEqualTo("user@example.com");
+        assertThat(jwtService.isTokenValid(claims, testUser)).isTrue();
+    }
+
+    @Test
+    void verifyToken_ShouldServeRepeatedTokenFromCache() {
+        // given
+        String token = jwtService.generateToken(testUser);
+
+        // when
+        Claims first = jwtService.verifyToken(token);
+        Claims second = jwtService.verifyToken(token);
+
+        // then
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void verifyToken_ShouldThrow_WhenSignatureTampered() {
+        // given
+        String token = jwtService.generateToken(testUser);
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signatureStart) + replacement + token.substring(signatureStart + 1);
+
+        // when & then
+        assertThrows(SignatureException.class, () -> jwtService.verifyToken(tampered));
+    }
+
+    @Test
+    void verifyToken_ShouldThrow_WhenTokenExpired() {
+        // given
+        JwtService expiringService = newJwtService(-1000);
+        String token = expiringService.generateToken(testUser);
+
+        // when & then
+        assertThrows(ExpiredJwtException.class, () -> expiringService.verifyToken(token));
+    }
+
+    @Test
+    void isTokenValid_ShouldReturnFalse_WhenTokenBelongsToAnotherUser() {
+        // given
+        String token = jwtService.generateToken(testUser);
+        User otherUser = User.builder()
+                .email("other@example.com")
+                .password("encodedPassword")
+                .role(Role.ROLE_USER)
+                .build();
+
+        // when & then
+        assertThat(jwtService.isTokenValid(token, otherUser)).isFalse();
+    }
+
+    @Test
+    void toPrincipal_ShouldRebuildUserFromClaims_WhenStatelessTokensEnabled() {
+        // given
+        ReflectionTestUtils.setField(jwtService, "statelessTokens", true);
+        testUser.setId(1);
+        testUser.setTokenVersion(3);
+        String token = jwtService.generateToken(testUser);
+
+        // when
+        Claims claims = jwtService.verifyToken(token);
+        User principal = jwtService.toPrincipal(claims);
+
+        // then
+        assertThat(jwtService.isStatelessToken(claims)).isTrue();
+        assertThat(principal.getUsername()).isEqualTo("user@example.com");
+        assertThat(principal.getRole()).isEqualTo(Role.ROLE_USER);
+        assertThat(principal.getTokenVersion()).isEqualTo(3);
+    }
+
+    @Test
+    void isStatelessToken_ShouldReturnFalse_WhenStatelessTokensDisabled() {
+        // given
+        String token = jwtService.generateToken(testUser);
+
+        // when
+        Claims claims = jwtService.verifyToken(token);
+
+        // then
+        assertThat(jwtService.isStatelessToken(claims)).isFalse();
+        assertThat(claims.getId()).isNotNull();
+    }
+
+    @Test
+    void generateRefreshToken_ShouldUseSessionIdAndCarryTokenVersion() {
+        // given
+        testUser.setTokenVersion(3);
+        String token = jwtService.generateRefreshToken(testUser, "session-1");
+
+        // when
+        Claims claims = jwtService.verifyToken(token);
+
+        // then
+        assertThat(claims.getId()).isEqualTo("session-1");
+        assertThat(claims.get(JwtService.VERSION_CLAIM, Integer.class)).isEqualTo(3);
+        assertThat(claims.get(JwtService.SESSION_CLAIM)).isNull();
+    }
+}
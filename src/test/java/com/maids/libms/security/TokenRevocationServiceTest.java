@@ -0,0 +1,127 @@
+package com.maids.libms.security;
+
+import com.maids.libms.model.RevokedToken;
+import com.maids.libms.model.UserChangedEvent;
+import com.maids.libms.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @InjectMocks
+    private TokenRevocationService revocationService;
+
+    private Claims claims;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(revocationService, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(revocationService, "refreshExpiration", 86400000L);
+        ReflectionTestUtils.setField(revocationService, "refreshMillis", 30000L);
+
+        claims = Jwts.claims()
+                .setId("token-1")
+                .setSubject("user@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000));
+        claims.put(JwtService.VERSION_CLAIM, 0);
+    }
+
+    @Test
+    void isRevoked_ShouldNotQueryDatabase_WhenKeyAbsentFromFilter() {
+        // given
+        when(revokedTokenRepository.findActiveTokenKeys(any(LocalDateTime.class))).thenReturn(List.of());
+        revocationService.refresh();
+
+        // when
+        boolean revoked = revocationService.isRevoked(claims);
+
+        // then
+        assertThat(revoked).isFalse();
+        verify(revokedTokenRepository, never()).existsByTokenKeyAndExpiresAtAfter(anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void isRevoked_ShouldReturnTrue_WhenTokenRevokedOnLogout() {
+        // given
+        when(revokedTokenRepository.findActiveTokenKeys(any(LocalDateTime.class))).thenReturn(List.of());
+        revocationService.refresh();
+        revocationService.revokeToken(claims);
+        when(revokedTokenRepository.existsByTokenKeyAndExpiresAtAfter(eq("jti:token-1"), any(LocalDateTime.class)))
+                .thenReturn(true);
+
+        // when
+        boolean revoked = revocationService.isRevoked(claims);
+
+        // then
+        assertThat(revoked).isTrue();
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void isRevoked_ShouldReturnTrue_ForAccessTokensOfLoggedOutSession() {
+        // given
+        when(revokedTokenRepository.findActiveTokenKeys(any(LocalDateTime.class))).thenReturn(List.of());
+        revocationService.refresh();
+        revocationService.revokeSession("session-1");
+        when(revokedTokenRepository.existsByTokenKeyAndExpiresAtAfter(eq("jti:session-1"), any(LocalDateTime.class)))
+                .thenReturn(true);
+        claims.put(JwtService.SESSION_CLAIM, "session-1");
+        Claims refreshClaims = Jwts.claims()
+                .setId("session-1")
+                .setSubject("user@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 86400000));
+
+        // when
+        boolean accessRevoked = revocationService.isRevoked(claims);
+        boolean refreshRevoked = revocationService.isRevoked(refreshClaims);
+
+        // then
+        assertThat(accessRevoked).isTrue();
+        assertThat(refreshRevoked).isTrue();
+    }
+
+    @Test
+    void isRevoked_ShouldReturnTrue_WhenUserVersionRevoked() {
+        // given
+        when(revokedTokenRepository.findActiveTokenKeys(any(LocalDateTime.class))).thenReturn(List.of("ver:user@example.com#0"));
+        revocationService.refresh();
+        when(revokedTokenRepository.existsByTokenKeyAndExpiresAtAfter(eq("ver:user@example.com#0"), any(LocalDateTime.class)))
+                .thenReturn(true);
+
+        // when
+        boolean revoked = revocationService.isRevoked(claims);
+
+        // then
+        assertThat(revoked).isTrue();
+    }
+
+    @Test
+    void onUserChanged_ShouldIgnoreEvent_WhenCredentialsUnchanged() {
+        // when
+        revocationService.onUserChanged(new UserChangedEvent("user@example.com", null));
+
+        // then
+        verifyNoInteractions(revokedTokenRepository);
+    }
+}
@@ -0,0 +1,89 @@
+package com.maids.libms.security;
+
+import com.maids.libms.model.Role;
+import com.maids.libms.model.User;
+import com.maids.libms.model.UserChangedEvent;
+import com.maids.libms.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserPrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserPrincipalCache principalCache;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        principalCache = new UserPrincipalCache(userRepository, meterRegistry);
+        ReflectionTestUtils.setField(principalCache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(principalCache, "maxSize", 100L);
+        principalCache.init();
+
+        testUser = User.builder()
+                .email("user@example.com")
+                .password("encodedPassword")
+                .role(Role.ROLE_USER)
+                .build();
+    }
+
+    @Test
+    void loadByEmail_ShouldQueryRepositoryOnce_WhenCalledRepeatedly() {
+        // given
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
+
+        // when
+        User first = principalCache.loadByEmail("user@example.com");
+        User second = principalCache.loadByEmail("user@example.com");
+
+        // then
+        assertThat(first).isSameAs(testUser);
+        assertThat(second).isSameAs(testUser);
+        verify(userRepository, times(1)).findByEmail("user@example.com");
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "userPrincipals", "result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "userPrincipals", "result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void loadByEmail_ShouldReload_WhenUserChanged() {
+        // given
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
+        principalCache.loadByEmail("user@example.com");
+
+        // when
+        principalCache.onUserChanged(new UserChangedEvent("user@example.com", null));
+        principalCache.loadByEmail("user@example.com");
+
+        // then
+        verify(userRepository, times(2)).findByEmail("user@example.com");
+    }
+
+    @Test
+    void loadByEmail_ShouldThrowAndNotCache_WhenUserNotFound() {
+        // given
+        when(userRepository.findByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> principalCache.loadByEmail("missing@example.com"));
+        assertThrows(IllegalArgumentException.class, () -> principalCache.loadByEmail("missing@example.com"));
+        verify(userRepository, times(2)).findByEmail("missing@example.com");
+    }
+}
@@ -6,9 +6,13 @@ import com.maids.libms.model.Role;
 import com.maids.libms.model.User;
 import com.maids.libms.repository.UserRepository;
 import com.maids.libms.security.JwtService;
+import com.maids.libms.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,11 +21,16 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Date;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +48,9 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private TokenRevocationService revocationService;
+
     @InjectMocks
     private AuthService authService;
 
@@ -53,9 +65,21 @@ class AuthServiceTest {
                 .email("user@example.com")
                 .password("encodedPassword")
                 .role(Role.ROLE_USER)
+                .tokenVersion(2)
                 .build();
     }
 
+    private static Claims refreshClaims(String subject, Integer version) {
+        Claims claims = Jwts.claims()
+                .setId("session-1")
+                .setSubject(subject)
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000));
+        if (version != null) {
+            claims.put(JwtService.VERSION_CLAIM, version);
+        }
+        return claims;
+    }
+
     @Test
     void register_ShouldCreateUserAndReturnTokens() {
         // Arrange
@@ -70,8 +94,8 @@ class AuthServiceTest {
         });
 
         // Match any User argument for token generation
-        when(jwtService.generateToken(any(User.class))).thenReturn("accessToken");
-        when(jwtService.generateRefreshToken(any(User.class))).thenReturn("refreshToken");
+        when(jwtService.generateToken(anyMap(), any(User.class))).thenReturn("accessToken");
+        when(jwtService.generateRefreshToken(any(User.class), anyString())).thenReturn("refreshToken");
 
         // Act
         AuthResponse response = authService.register(validRequest);
@@ -81,15 +105,15 @@ class AuthServiceTest {
         assertThat(response.getRefreshToken()).isEqualTo("refreshToken");
 
         verify(userRepository).save(any(User.class));
-        verify(jwtService).generateToken(any(User.class));
+        verify(jwtService).generateToken(anyMap(), any(User.class));
     }
 
     @Test
     void login_ShouldReturnTokens_WhenCredentialsValid() {
         // Arrange
         when(userRepository.findByEmail(validRequest.getEmail())).thenReturn(Optional.of(testUser));
-        when(jwtService.generateToken(testUser)).thenReturn("accessToken");
-        when(jwtService.generateRefreshToken(testUser)).thenReturn("refreshToken");
+        when(jwtService.generateToken(anyMap(), eq(testUser))).thenReturn("accessToken");
+        when(jwtService.generateRefreshToken(eq(testUser), anyString())).thenReturn("refreshToken");
 
         // Act
         AuthResponse response = authService.login(validRequest);
@@ -101,6 +125,20 @@ class AuthServiceTest {
         verify(userRepository).findByEmail(validRequest.getEmail());
     }
 
+    @Test
+    void login_ShouldBindAccessTokenToRefreshTokenSession() {
+        // Arrange
+        when(userRepository.findByEmail(validRequest.getEmail())).thenReturn(Optional.of(testUser));
+        ArgumentCaptor<String> sessionId = ArgumentCaptor.forClass(String.class);
+        when(jwtService.generateRefreshToken(eq(testUser), sessionId.capture())).thenReturn("refreshToken");
+
+        // Act
+        authService.login(validRequest);
+
+        // Assert
+        verify(jwtService).generateToken(Map.of(JwtService.SESSION_CLAIM, sessionId.getValue()), testUser);
+    }
+
     @Test
     void login_ShouldThrow_WhenUserNotFound() {
         // Arrange
@@ -127,10 +165,12 @@ class AuthServiceTest {
     void refreshToken_ShouldReturnNewAccessToken_WhenValidRefreshToken() {
         // Arrange
         String validRefreshToken = "Bearer valid.refresh.token";
-        when(jwtService.extractUsername("valid.refresh.token")).thenReturn("user@example.com");
+        Claims claims = refreshClaims("user@example.com", 2);
+        when(jwtService.verifyToken("valid.refresh.token")).thenReturn(claims);
         when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
-        when(jwtService.isTokenValid("valid.refresh.token", testUser)).thenReturn(true);
-        when(jwtService.generateToken(testUser)).thenReturn("newAccessToken");
+        when(jwtService.isTokenValid(claims, testUser)).thenReturn(true);
+        when(jwtService.generateToken(Map.of(JwtService.SESSION_CLAIM, "session-1"), testUser))
+                .thenReturn("newAccessToken");
 
         // Act
         AuthResponse response = authService.refreshToken(validRefreshToken);
@@ -138,6 +178,7 @@ class AuthServiceTest {
         // Assert
         assertThat(response.getAccessToken()).isEqualTo("newAccessToken");
         assertThat(response.getRefreshToken()).isEqualTo("valid.refresh.token");
+        verify(revocationService).isRevoked(claims);
     }
 
     @Test
@@ -154,7 +195,7 @@ class AuthServiceTest {
     void refreshToken_ShouldThrow_WhenUserNotFound() {
         // Arrange
         String validToken = "Bearer valid.token";
-        when(jwtService.extractUsername("valid.token")).thenReturn("nonexistent@example.com");
+        when(jwtService.verifyToken("valid.token")).thenReturn(refreshClaims("nonexistent@example.com", 0));
         when(userRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -166,12 +207,75 @@ class AuthServiceTest {
     void refreshToken_ShouldThrow_WhenTokenInvalid() {
         // Arrange
         String invalidToken = "Bearer invalid.token";
-        when(jwtService.extractUsername("invalid.token")).thenReturn("user@example.com");
+        Claims claims = refreshClaims("user@example.com", 2);
+        when(jwtService.verifyToken("invalid.token")).thenReturn(claims);
         when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
-        when(jwtService.isTokenValid("invalid.token", testUser)).thenReturn(false);
+        when(jwtService.isTokenValid(claims, testUser)).thenReturn(false);
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () ->
                 authService.refreshToken(invalidToken));
     }
-}
\ No newline at end of file
+
+    @Test
+    void refreshToken_ShouldThrow_WhenSessionLoggedOut() {
+        // Arrange
+        String refreshToken = "Bearer revoked.token";
+        Claims claims = refreshClaims("user@example.com", 2);
+        when(jwtService.verifyToken("revoked.token")).thenReturn(claims);
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
+        when(jwtService.isTokenValid(claims, testUser)).thenReturn(true);
+        when(revocationService.isRevoked(claims)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                authService.refreshToken(refreshToken));
+        verify(jwtService, never()).generateToken(anyMap(), any(User.class));
+    }
+
+    @Test
+    void refreshToken_ShouldThrow_WhenUserChangedSinceIssued() {
+        // Arrange
+        String refreshToken = "Bearer stale.token";
+        Claims claims = refreshClaims("user@example.com", 1);
+        when(jwtService.verifyToken("stale.token")).thenReturn(claims);
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
+        when(jwtService.isTokenValid(claims, testUser)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                authService.refreshToken(refreshToken));
+        verify(jwtService, never()).generateToken(anyMap(), any(User.class));
+    }
+
+    @Test
+    void refreshToken_ShouldThrow_WhenGivenAccessToken() {
+        // Arrange
+        String accessToken = "Bearer access.token";
+        Claims claims = refreshClaims("user@example.com", 2);
+        claims.put(JwtService.SESSION_CLAIM, "session-1");
+        when(jwtService.verifyToken("access.token")).thenReturn(claims);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                authService.refreshToken(accessToken));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void logout_ShouldRevokeAccessTokenAndItsSession() {
+        // Arrange
+        Claims claims = refreshClaims("user@example.com", 2);
+        claims.setId("access-1");
+        claims.put(JwtService.SESSION_CLAIM, "session-1");
+        when(jwtService.verifyToken("access.token")).thenReturn(claims);
+
+        // Act
+        String result = authService.logout("Bearer access.token");
+
+        // Assert
+        assertThat(result).isEqualTo("Done.");
+        verify(revocationService).revokeToken(claims);
+        verify(revocationService).revokeSession("session-1");
+    }
+}
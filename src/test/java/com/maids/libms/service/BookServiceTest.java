@@ -1,5 +1,10 @@
 package com.maids.libms.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maids.libms.cache.CacheBulkOperations;
+import com.maids.libms.cache.NegativeLookupCache;
+import com.maids.libms.cache.ResponseBodyCache;
+import com.maids.libms.config.JacksonConfig;
 import com.maids.libms.constant.CacheConstants;
 import com.maids.libms.model.Book;
 import com.maids.libms.repository.BookRepository;
@@ -20,6 +25,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -75,6 +81,72 @@ class BookServiceTest {
         verify(bookRepository, times(1)).findById(999);
     }
 
+    @Test
+    void findById_shouldSkipDatabase_whenIdKnownMissing() {
+        // given
+        NegativeLookupCache negativeLookupCache = mock(NegativeLookupCache.class);
+        bookService.setNegativeLookupCache(negativeLookupCache);
+        when(negativeLookupCache.isKnownMissing(CacheConstants.BOOK_CACHE, 999)).thenReturn(true);
+
+        // when & then
+        assertThrows(EntityNotFoundException.class, () -> bookService.findById(999));
+        verify(bookRepository, never()).findById(999);
+    }
+
+    @Test
+    void findById_shouldRecordTombstone_whenBookDoesNotExist() {
+        // given
+        NegativeLookupCache negativeLookupCache = mock(NegativeLookupCache.class);
+        bookService.setNegativeLookupCache(negativeLookupCache);
+        when(bookRepository.findById(999)).thenReturn(Optional.empty());
+
+        // when & then
+        assertThrows(EntityNotFoundException.class, () -> bookService.findById(999));
+        verify(negativeLookupCache).recordMissing(CacheConstants.BOOK_CACHE, 999);
+    }
+
+    @Test
+    void findAllById_shouldReturnBooksInRequestOrder() {
+        // given
+        Book secondBook = Book.builder()
+                .isbn("978-0-7475-3849-3")
+                .title("Harry Potter and the Chamber of Secrets")
+                .author("J.K. Rowling")
+                .publicationYear(1998)
+                .build();
+        secondBook.setId(2);
+        when(bookRepository.findAllById(List.of(2, 1, 999))).thenReturn(List.of(testBook, secondBook));
+
+        // when
+        List<Book> result = bookService.findAllById(List.of(2, 1, 2, 999));
+
+        // then
+        assertThat(result).containsExactly(secondBook, testBook);
+    }
+
+    @Test
+    void findAllById_shouldOnlyQueryCacheMissesAndBackfill() {
+        // given
+        CacheBulkOperations bulkOperations = mock(CacheBulkOperations.class);
+        bookService.setBulkOperations(bulkOperations);
+        Book cachedBook = Book.builder()
+                .isbn("978-0-7475-3849-3")
+                .title("Harry Potter and the Chamber of Secrets")
+                .author("J.K. Rowling")
+                .publicationYear(1998)
+                .build();
+        cachedBook.setId(2);
+        when(bulkOperations.getAll(CacheConstants.BOOK_CACHE, List.of(1, 2))).thenReturn(Map.of(2, cachedBook));
+        when(bookRepository.findAllById(List.of(1))).thenReturn(List.of(testBook));
+
+        // when
+        List<Book> result = bookService.findAllById(List.of(1, 2));
+
+        // then
+        assertThat(result).containsExactly(testBook, cachedBook);
+        verify(bulkOperations).putAll(CacheConstants.BOOK_CACHE, Map.of(1, testBook));
+    }
+
     @Test
     void create_shouldReturnSavedBook() {
         // given
@@ -128,6 +200,31 @@ class BookServiceTest {
         verify(bookRepository, times(1)).save(any(Book.class));
     }
 
+    @Test
+    void update_shouldStoreNewResponseBody() throws Exception {
+        // given
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        bookService.setResponseBodyCache(new ResponseBodyCache(cacheManager, objectMapper));
+        cacheManager.getCache(CacheConstants.BOOK_RESPONSE_CACHE).put(1, objectMapper.writeValueAsBytes(testBook));
+        Book updatedBook = Book.builder()
+                .isbn("978-0-7475-3269-9")
+                .title("Harry Potter and the Sorcerer's Stone")
+                .author("J.K. Rowling")
+                .publicationYear(1997)
+                .build();
+        updatedBook.setId(1);
+        when(bookRepository.findById(1)).thenReturn(Optional.of(testBook));
+        when(bookRepository.save(any(Book.class))).thenReturn(updatedBook);
+
+        // when
+        bookService.update(1, updatedBook);
+
+        // then
+        byte[] cached = cacheManager.getCache(CacheConstants.BOOK_RESPONSE_CACHE).get(1, byte[].class);
+        assertThat(cached).isEqualTo(objectMapper.writeValueAsBytes(updatedBook));
+    }
+
     @Test
     void update_shouldThrowException_whenBookDoesNotExist() {
         // given
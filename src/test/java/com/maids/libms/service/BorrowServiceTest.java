@@ -3,6 +3,7 @@ package com.maids.libms.service;
 import com.maids.libms.model.Book;
 import com.maids.libms.model.BorrowRecord;
 import com.maids.libms.model.Patron;
+import com.maids.libms.repository.BorrowRecordJdbcRepository;
 import com.maids.libms.repository.BorrowRecordRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,14 +12,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +35,9 @@ class BorrowServiceTest {
     @Mock
     private BorrowRecordRepository borrowRecordRepository;
 
+    @Mock
+    private BorrowRecordJdbcRepository borrowRecordJdbcRepository;
+
     @Mock
     private BookService bookService;
 
@@ -49,39 +60,40 @@ class BorrowServiceTest {
         testPatron.setId(PATRON_ID);
     }
 
+    private static BorrowRecord insertedRecord(LocalDateTime borrowingDate) {
+        BorrowRecord record = new BorrowRecord().setBorrowingDate(borrowingDate);
+        record.setId(51);
+        return record;
+    }
+
     @Test
     void borrowBook_Success() {
         // Given
+        when(borrowRecordJdbcRepository.borrow(eq(BOOK_ID), eq(PATRON_ID), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> Optional.of(insertedRecord(invocation.getArgument(2))));
         when(bookService.findById(BOOK_ID)).thenReturn(testBook);
         when(patronService.findById(PATRON_ID)).thenReturn(testPatron);
-        when(borrowRecordRepository.findActiveBorrowByBookId(BOOK_ID))
-                .thenReturn(Optional.empty());
-        when(borrowRecordRepository.save(any(BorrowRecord.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
         BorrowRecord result = borrowService.borrowBook(BOOK_ID, PATRON_ID);
 
         // Then
         assertThat(result).isNotNull();
+        assertThat(result.getId()).isEqualTo(51);
+        assertThat(result.getBorrowingDate()).isBeforeOrEqualTo(LocalDateTime.now());
         assertThat(result.getBook()).isEqualTo(testBook);
         assertThat(result.getPatron()).isEqualTo(testPatron);
         assertThat(result.getReturnDate()).isNull();
-        verify(borrowRecordRepository).save(any(BorrowRecord.class));
+        verifyNoInteractions(borrowRecordRepository);
     }
 
-
     @Test
     void borrowBook_AlreadyBorrowed() {
         // Given
-        BorrowRecord existingRecord = new BorrowRecord()
-                .setBook(testBook)
-                .setPatron(testPatron);
-
+        when(borrowRecordJdbcRepository.borrow(eq(BOOK_ID), eq(PATRON_ID), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
         when(bookService.findById(BOOK_ID)).thenReturn(testBook);
         when(patronService.findById(PATRON_ID)).thenReturn(testPatron);
-        when(borrowRecordRepository.findActiveBorrowByBookId(BOOK_ID))
-                .thenReturn(Optional.of(existingRecord));
 
         // When & Then
         assertThatThrownBy(() -> borrowService.borrowBook(BOOK_ID, PATRON_ID))
@@ -90,70 +102,113 @@ class BorrowServiceTest {
     }
 
     @Test
-    void returnBook_Success() {
+    void borrowBook_BookNotFound() {
         // Given
-        BorrowRecord activeRecord = new BorrowRecord()
-                .setBook(testBook)
-                .setPatron(testPatron)
-                .setBorrowingDate(LocalDateTime.now());
+        when(borrowRecordJdbcRepository.borrow(eq(BOOK_ID), eq(PATRON_ID), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+        when(bookService.findById(BOOK_ID)).thenThrow(new EntityNotFoundException("Book not found"));
 
-        when(borrowRecordRepository.findActiveBorrow(BOOK_ID, PATRON_ID))
-                .thenReturn(Optional.of(activeRecord));
-        when(borrowRecordRepository.save(any(BorrowRecord.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        // When & Then
+        assertThatThrownBy(() -> borrowService.borrowBook(BOOK_ID, PATRON_ID))
+                .isInstanceOf(EntityNotFoundException.class);
+        verifyNoInteractions(patronService);
+    }
+
+    @Test
+    void borrowBook_ConcurrencyHandling() {
+        // Given
+        when(borrowRecordJdbcRepository.borrow(eq(BOOK_ID), eq(PATRON_ID), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> Optional.of(insertedRecord(invocation.getArgument(2))))
+                .thenThrow(new DuplicateKeyException("ux_borrow_records_active_book")); // Simulate concurrent borrow
+        when(bookService.findById(BOOK_ID)).thenReturn(testBook);
+        when(patronService.findById(PATRON_ID)).thenReturn(testPatron);
+
+        // First borrow should succeed
+        borrowService.borrowBook(BOOK_ID, PATRON_ID);
+
+        // Second attempt should fail
+        assertThatThrownBy(() -> borrowService.borrowBook(BOOK_ID, PATRON_ID))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Book is already borrowed");
+    }
+
+    @Test
+    void returnBook_Success() {
+        // Given
+        LocalDateTime borrowingDate = LocalDateTime.now().minusDays(3);
+        when(borrowRecordJdbcRepository.markReturned(eq(BOOK_ID), eq(PATRON_ID), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    BorrowRecord record = insertedRecord(borrowingDate).setReturnDate(invocation.getArgument(2));
+                    return Optional.of(record);
+                });
+        when(bookService.findById(BOOK_ID)).thenReturn(testBook);
+        when(patronService.findById(PATRON_ID)).thenReturn(testPatron);
 
         // When
         BorrowRecord result = borrowService.returnBook(BOOK_ID, PATRON_ID);
 
         // Then
+        assertThat(result.getBorrowingDate()).isEqualTo(borrowingDate);
         assertThat(result.getReturnDate()).isNotNull();
         assertThat(result.getReturnDate()).isBeforeOrEqualTo(LocalDateTime.now());
-        verify(borrowRecordRepository).save(activeRecord);
+        assertThat(result.getBook()).isEqualTo(testBook);
+        assertThat(result.getPatron()).isEqualTo(testPatron);
+        verifyNoInteractions(borrowRecordRepository);
     }
 
     @Test
     void returnBook_NoActiveBorrow() {
         // Given
-        when(borrowRecordRepository.findActiveBorrow(BOOK_ID, PATRON_ID))
+        when(borrowRecordJdbcRepository.markReturned(eq(BOOK_ID), eq(PATRON_ID), any(LocalDateTime.class)))
                 .thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> borrowService.returnBook(BOOK_ID, PATRON_ID))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("No active borrow record found");
+        verifyNoInteractions(bookService, patronService);
     }
 
     @Test
-    void returnBook_ConcurrentUpdate() {
+    void returnBook_ConcurrentReturn() {
         // Given
-        BorrowRecord activeRecord = new BorrowRecord()
-                .setBook(testBook)
-                .setPatron(testPatron);
+        when(borrowRecordJdbcRepository.markReturned(eq(BOOK_ID), eq(PATRON_ID), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(insertedRecord(LocalDateTime.now())))
+                .thenReturn(Optional.empty()); // The other request already closed the borrow
+        when(bookService.findById(BOOK_ID)).thenReturn(testBook);
+        when(patronService.findById(PATRON_ID)).thenReturn(testPatron);
 
-        when(borrowRecordRepository.findActiveBorrow(BOOK_ID, PATRON_ID))
-                .thenReturn(Optional.of(activeRecord));
-        when(borrowRecordRepository.save(activeRecord))
-                .thenThrow(new OptimisticLockingFailureException("Concurrent modification"));
+        // First return should succeed
+        borrowService.returnBook(BOOK_ID, PATRON_ID);
 
-        // When & Then
+        // Second attempt finds nothing to return
         assertThatThrownBy(() -> borrowService.returnBook(BOOK_ID, PATRON_ID))
-                .isInstanceOf(OptimisticLockingFailureException.class);
+                .isInstanceOf(EntityNotFoundException.class);
     }
 
     @Test
-    void borrowBook_ConcurrencyHandling() {
+    void findByPatron_ShouldReturnHistoryOfExistingPatron() {
         // Given
-        when(bookService.findById(BOOK_ID)).thenReturn(testBook);
+        Pageable pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "borrowingDate"));
+        Page<BorrowRecord> history = new PageImpl<>(List.of(insertedRecord(LocalDateTime.now())));
         when(patronService.findById(PATRON_ID)).thenReturn(testPatron);
-        when(borrowRecordRepository.findActiveBorrowByBookId(BOOK_ID))
-                .thenReturn(Optional.empty())
-                .thenReturn(Optional.of(new BorrowRecord())); // Simulate concurrent borrow
+        when(borrowRecordRepository.findByPatronId(PATRON_ID, pageable)).thenReturn(history);
 
-        // First borrow should succeed
-        borrowService.borrowBook(BOOK_ID, PATRON_ID);
+        // When
+        Page<BorrowRecord> result = borrowService.findByPatron(PATRON_ID, pageable);
 
-        // Second attempt should fail
-        assertThatThrownBy(() -> borrowService.borrowBook(BOOK_ID, PATRON_ID))
-                .isInstanceOf(IllegalStateException.class);
+        // Then
+        assertThat(result).isSameAs(history);
+    }
+
+    @Test
+    void findByBook_UnknownBook() {
+        // Given
+        when(bookService.findById(BOOK_ID)).thenThrow(new EntityNotFoundException("Book not found"));
+
+        // When & Then
+        assertThatThrownBy(() -> borrowService.findByBook(BOOK_ID, PageRequest.of(0, 20)))
+                .isInstanceOf(EntityNotFoundException.class);
+        verify(borrowRecordRepository, never()).findByBookId(any(), any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,224 @@
+package com.maids.libms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maids.libms.cache.CacheBulkOperations;
+import com.maids.libms.cache.NegativeLookupCache;
+import com.maids.libms.cache.PageCache;
+import com.maids.libms.constant.CacheConstants;
+import com.maids.libms.dto.BulkImportReport;
+import com.maids.libms.dto.BulkImportReport.RowError;
+import com.maids.libms.model.Book;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkImportServiceTest {
+
+    @Mock
+    private BulkCopyWriter writer;
+
+    @Mock
+    private CacheBulkOperations bulkOperations;
+
+    @Mock
+    private NegativeLookupCache negativeLookupCache;
+
+    @Mock
+    private PageCache pageCache;
+
+    private ValidatorFactory validatorFactory;
+    private BulkImportService bulkImportService;
+    private final List<List<Long>> writtenChunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        bulkImportService = new BulkImportService(writer, new ObjectMapper(), validatorFactory.getValidator(),
+                bulkOperations, negativeLookupCache, pageCache);
+        ReflectionTestUtils.setField(bulkImportService, "chunkSize", 2);
+        ReflectionTestUtils.setField(bulkImportService, "parallelism", 2);
+        ReflectionTestUtils.setField(bulkImportService, "maxErrors", 100);
+        bulkImportService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkImportService.shutdown();
+        validatorFactory.close();
+    }
+
+    private void writerAssignsIds() {
+        AtomicInteger nextId = new AtomicInteger(1);
+        when(writer.write(eq(BookService.BULK_IMPORT_TARGET), any())).thenAnswer(invocation -> {
+            List<BulkImportTarget.Row<Book>> rows = invocation.getArgument(1);
+            writtenChunks.add(rows.stream().map(BulkImportTarget.Row::number).toList());
+            rows.forEach(row -> row.entity().setId(nextId.getAndIncrement()));
+            return List.of();
+        });
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String bookJson(String isbn, String title) {
+        return "{\"isbn\":\"" + isbn + "\",\"title\":\"" + title
+                + "\",\"author\":\"Joshua Bloch\",\"publicationYear\":2018}\n";
+    }
+
+    @Test
+    void importRows_shouldWriteNdjsonInInputOrderAndRefreshCache() {
+        // given
+        writerAssignsIds();
+        String ndjson = bookJson("9783161484100", "One")
+                + "\n"
+                + bookJson("9780134685991", "Two")
+                + bookJson("9780321356680", "Three")
+                + bookJson("9781617294945", "Four")
+                + bookJson("9781491950357", "Five");
+
+        // when
+        BulkImportReport report = bulkImportService.importRows(BookService.BULK_IMPORT_TARGET,
+                MediaType.APPLICATION_NDJSON, body(ndjson));
+
+        // then
+        assertThat(report.getTotalRows()).isEqualTo(5);
+        assertThat(report.getImported()).isEqualTo(5);
+        assertThat(report.getFailed()).isZero();
+        assertThat(report.getErrors()).isEmpty();
+        assertThat(writtenChunks).containsExactly(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Integer, Book>> written = ArgumentCaptor.forClass(Map.class);
+        verify(bulkOperations, times(3)).putAllCreated(eq(CacheConstants.BOOK_CACHE), written.capture());
+        assertThat(written.getAllValues()).flatExtracting(Map::keySet).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+        verify(negativeLookupCache, times(3)).recordCreatedAll(eq(CacheConstants.BOOK_CACHE), any());
+        verify(pageCache).bump(CacheConstants.BOOK_PAGE_CACHE);
+    }
+
+    @Test
+    void importRows_shouldParseCsvWithHeader() {
+        // given
+        writerAssignsIds();
+        String csv = "isbn,title,author,description,publicationYear\n"
+                + "9783161484100,\"Effective Java, 3rd\",Joshua Bloch,,2018\n";
+
+        // when
+        BulkImportReport report = bulkImportService.importRows(BookService.BULK_IMPORT_TARGET,
+                MediaType.parseMediaType("text/csv;charset=UTF-8"), body(csv));
+
+        // then
+        assertThat(report.getImported()).isEqualTo(1);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Integer, Book>> written = ArgumentCaptor.forClass(Map.class);
+        verify(bulkOperations).putAllCreated(eq(CacheConstants.BOOK_CACHE), written.capture());
+        Book book = written.getValue().get(1);
+        assertThat(book.getTitle()).isEqualTo("Effective Java, 3rd");
+        assertThat(book.getDescription()).isNull();
+        assertThat(book.getPublicationYear()).isEqualTo(2018);
+    }
+
+    @Test
+    void importRows_shouldReportInvalidAndMalformedRows() {
+        // given
+        writerAssignsIds();
+        String ndjson = bookJson("9783161484100", "One")
+                + "{\"isbn\":\"9780134685991\",\"title\":\"\",\"author\":\"A\",\"publicationYear\":2018}\n"
+                + "{not json\n"
+                + bookJson("9783161484100", "One again");
+
+        // when
+        BulkImportReport report = bulkImportService.importRows(BookService.BULK_IMPORT_TARGET,
+                MediaType.APPLICATION_NDJSON, body(ndjson));
+
+        // then
+        assertThat(report.getTotalRows()).isEqualTo(4);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(RowError::getRow).containsExactly(2L, 3L);
+        assertThat(report.getErrors().get(0).getMessage()).startsWith("title:");
+        assertThat(report.getErrors().get(1).getMessage()).startsWith("Malformed record");
+    }
+
+    @Test
+    void importRows_shouldReportDuplicatesWithinChunk() {
+        // given
+        ReflectionTestUtils.setField(bulkImportService, "chunkSize", 10);
+        writerAssignsIds();
+        String ndjson = bookJson("9783161484100", "One") + bookJson("9783161484100", "One again");
+
+        // when
+        BulkImportReport report = bulkImportService.importRows(BookService.BULK_IMPORT_TARGET,
+                MediaType.APPLICATION_NDJSON, body(ndjson));
+
+        // then
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).containsExactly(new RowError(2, "isbn duplicates row 1"));
+    }
+
+    @Test
+    void importRows_shouldCountWriterRejectionsAndSkipCacheForThem() {
+        // given
+        when(writer.write(eq(BookService.BULK_IMPORT_TARGET), any()))
+                .thenReturn(List.of(new RowError(1, "isbn already exists"), new RowError(2, "isbn already exists")));
+        String ndjson = bookJson("9783161484100", "One") + bookJson("9780134685991", "Two");
+
+        // when
+        BulkImportReport report = bulkImportService.importRows(BookService.BULK_IMPORT_TARGET,
+                MediaType.APPLICATION_NDJSON, body(ndjson));
+
+        // then
+        assertThat(report.getImported()).isZero();
+        assertThat(report.getFailed()).isEqualTo(2);
+        verify(bulkOperations, never()).putAllCreated(anyString(), any());
+        verify(pageCache, never()).bump(anyString());
+    }
+
+    @Test
+    void importRows_shouldTruncateErrorsAtMaxErrors() {
+        // given
+        ReflectionTestUtils.setField(bulkImportService, "maxErrors", 1);
+        String ndjson = "{bad\n{bad\n{bad\n";
+
+        // when
+        BulkImportReport report = bulkImportService.importRows(BookService.BULK_IMPORT_TARGET,
+                MediaType.APPLICATION_NDJSON, body(ndjson));
+
+        // then
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getErrors()).hasSize(1);
+        assertThat(report.isErrorsTruncated()).isTrue();
+        verifyNoInteractions(writer);
+    }
+
+    @Test
+    void importRows_shouldRejectUnsupportedContentType() {
+        // when / then
+        assertThrows(IllegalArgumentException.class, () -> bulkImportService.importRows(
+                BookService.BULK_IMPORT_TARGET, MediaType.APPLICATION_JSON, body("[]")));
+    }
+}
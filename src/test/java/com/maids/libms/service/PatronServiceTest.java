@@ -1,5 +1,9 @@
 package com.maids.libms.service;
 
+import com.maids.libms.cache.CacheBulkOperations;
+import com.maids.libms.cache.NegativeLookupCache;
+import com.maids.libms.cache.PageCache;
+import com.maids.libms.constant.CacheConstants;
 import com.maids.libms.model.Patron;
 import com.maids.libms.repository.PatronRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -9,14 +13,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -93,6 +101,78 @@ class PatronServiceTest {
         verify(patronRepository, times(1)).save(patronToCreate);
     }
 
+    @Test
+    void createAll_shouldSaveInOneCallAndCacheCreatedPatrons() {
+        // given
+        CacheBulkOperations bulkOperations = mock(CacheBulkOperations.class);
+        patronService.setBulkOperations(bulkOperations);
+        Patron secondPatron = Patron.builder()
+                .name("Jane Doe")
+                .address("456 Side Street")
+                .postNo("12345")
+                .city("Anytown")
+                .email("jane.doe@example.com")
+                .phoneNo("+1-555-765-4321")
+                .build();
+        secondPatron.setId(2);
+        List<Patron> patrons = List.of(testPatron, secondPatron);
+        when(patronRepository.saveAll(patrons)).thenReturn(patrons);
+
+        // when
+        List<Patron> result = patronService.createAll(patrons);
+
+        // then
+        assertThat(result).containsExactly(testPatron, secondPatron);
+        verify(patronRepository, times(1)).saveAll(patrons);
+        verify(patronRepository, never()).save(any(Patron.class));
+        verify(bulkOperations).putAllCreated(CacheConstants.PATRON_CACHE, Map.of(1, testPatron, 2, secondPatron));
+    }
+
+    @Test
+    void createAll_shouldCachePatronsOnlyAfterCommit() {
+        // given
+        CacheBulkOperations bulkOperations = mock(CacheBulkOperations.class);
+        patronService.setBulkOperations(bulkOperations);
+        List<Patron> patrons = List.of(testPatron);
+        when(patronRepository.saveAll(patrons)).thenReturn(patrons);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // when
+            patronService.createAll(patrons);
+
+            // then
+            verifyNoInteractions(bulkOperations);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(bulkOperations).putAllCreated(CacheConstants.PATRON_CACHE, Map.of(1, testPatron));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void delete_shouldNotRecordMissingId_whenTransactionRollsBack() {
+        // given
+        NegativeLookupCache negativeLookupCache = mock(NegativeLookupCache.class);
+        PageCache pageCache = mock(PageCache.class);
+        patronService.setNegativeLookupCache(negativeLookupCache);
+        patronService.setPageCache(pageCache);
+        when(patronRepository.findById(1)).thenReturn(Optional.of(testPatron));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // when
+            patronService.delete(1);
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // then
+            verify(patronRepository).delete(testPatron);
+            verify(negativeLookupCache, never()).recordMissing(anyString(), any());
+            verifyNoInteractions(pageCache);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void update_shouldReturnUpdatedPatron_whenPatronExists() {
         // given